@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Splits SVG elliptical arcs into cubic Bézier curves. The math is the same
+ * as in the framework's PathParser, which draws arcs at runtime.
+ */
+final class ArcConverter {
+    // The segments never cover more than a quarter turn.
+    private static final double MAX_SEGMENT_SWEEP = 90.0;
+    private static final int MAX_SEGMENTS = 1024;
+
+    private ArcConverter() {
+    }
+
+    // The indices of the center parameterization, see toCenter.
+    static final int CENTER_X = 0;
+    static final int CENTER_Y = 1;
+    static final int RADIUS_X = 2;
+    static final int RADIUS_Y = 3;
+    static final int ROTATION = 4;
+    static final int START_ANGLE = 5;
+    static final int SWEEP_ANGLE = 6;
+
+    /**
+     * Write the arc from (x0, y0) to (x, y) as absolute cubic segments, or a
+     * line if one of the radii is 0. Nothing is written for an arc which ends
+     * where it starts, as the SVG spec omits it.
+     *
+     * @param tolerance the largest distance allowed between the curves and the
+     *                  arc, or 0 to use one curve per quarter turn
+     */
+    static void toCubics(float x0, float y0, float rx, float ry,
+                         float angle, boolean largeArc, boolean sweep,
+                         float x, float y, float tolerance, PathVisitor out) {
+        if (x0 == x && y0 == y) {
+            return;
+        }
+        if (rx == 0 || ry == 0) {
+            float[] line = {x, y};
+            out.segment('L', line, 0);
+            return;
+        }
+        double[] center = new double[7];
+        toCenter(x0, y0, rx, ry, angle, largeArc, sweep, x, y, center);
+        int numSegments = segmentCount(Math.max(center[RADIUS_X], center[RADIUS_Y]),
+                center[SWEEP_ANGLE], tolerance);
+        arcToBezier(center[CENTER_X], center[CENTER_Y], center[RADIUS_X], center[RADIUS_Y],
+                center[ROTATION], center[START_ANGLE], center[SWEEP_ANGLE], numSegments, x, y, out);
+    }
+
+    /**
+     * Convert the arc from (x0, y0) to (x, y), which must have non zero radii,
+     * to its center parameterization: the center, the radii scaled up if they
+     * are too small to reach the end point, the rotation in radians, and the
+     * start and sweep angles in degrees.
+     */
+    static void toCenter(float x0, float y0, float rx, float ry,
+                         float angle, boolean largeArc, boolean sweep,
+                         float x, float y, double[] out) {
+        double radAngle = Math.toRadians(angle % 360.0);
+        double cosAngle = Math.cos(radAngle);
+        double sinAngle = Math.sin(radAngle);
+
+        double dx2 = (x0 - x) / 2.0;
+        double dy2 = (y0 - y) / 2.0;
+
+        double x1 = cosAngle * dx2 + sinAngle * dy2;
+        double y1 = -sinAngle * dx2 + cosAngle * dy2;
+
+        double rxSq = rx * rx;
+        double rySq = ry * ry;
+        double x1Sq = x1 * x1;
+        double y1Sq = y1 * y1;
+
+        double radiiCheck = x1Sq / rxSq + y1Sq / rySq;
+        if (radiiCheck > 1) {
+            rx *= Math.sqrt(radiiCheck);
+            ry *= Math.sqrt(radiiCheck);
+            rxSq = rx * rx;
+            rySq = ry * ry;
+        }
+
+        double sign = (largeArc == sweep) ? -1 : 1;
+        double sq = ((rxSq * rySq) - (rxSq * y1Sq) - (rySq * x1Sq)) /
+                ((rxSq * y1Sq) + (rySq * x1Sq));
+        sq = (sq < 0) ? 0 : sq;
+        double coef = sign * Math.sqrt(sq);
+        double cx1 = coef * ((rx * y1) / ry);
+        double cy1 = coef * -((ry * x1) / rx);
+
+        double centerX = cosAngle * cx1 - sinAngle * cy1 + (x0 + x) / 2.0;
+        double centerY = sinAngle * cx1 + cosAngle * cy1 + (y0 + y) / 2.0;
+
+        double ux = (x1 - cx1) / rx;
+        double uy = (y1 - cy1) / ry;
+        double vx = (-x1 - cx1) / rx;
+        double vy = (-y1 - cy1) / ry;
+
+        double startAngle = Math.toDegrees(Math.atan2(uy, ux));
+        double sweepAngle = Math.toDegrees(Math.atan2(vy, vx)) - startAngle;
+        if (!sweep && sweepAngle > 0) {
+            sweepAngle -= 360.0;
+        } else if (sweep && sweepAngle < 0) {
+            sweepAngle += 360.0;
+        }
+        sweepAngle = Math.max(-360.0, Math.min(360.0, sweepAngle));
+
+        out[CENTER_X] = centerX;
+        out[CENTER_Y] = centerY;
+        out[RADIUS_X] = rx;
+        out[RADIUS_Y] = ry;
+        out[ROTATION] = radAngle;
+        out[START_ANGLE] = startAngle;
+        out[SWEEP_ANGLE] = sweepAngle;
+    }
+
+    /**
+     * @return how many cubic curves the arc needs to stay within the
+     *         tolerance. The error of one curve approximating a circular arc
+     *         of angle a is r * 2 * sin(a / 4)^6 / (27 * cos(a / 4)^2), and
+     *         the ellipse is bounded by the circle of its larger radius.
+     * @throws IllegalArgumentException if the sweep isn't finite
+     */
+    static int segmentCount(double radius, double sweepAngle, float tolerance) {
+        if (Double.isNaN(sweepAngle) || Double.isInfinite(sweepAngle)) {
+            throw new IllegalArgumentException("Invalid arc sweep " + sweepAngle);
+        }
+        int numSegments = (int) Math.ceil(Math.abs(sweepAngle) / MAX_SEGMENT_SWEEP);
+        if (tolerance <= 0) {
+            return numSegments;
+        }
+        double sweepRadians = Math.toRadians(Math.abs(sweepAngle));
+        while (numSegments < MAX_SEGMENTS) {
+            double quarter = sweepRadians / numSegments / 4;
+            double sin = Math.sin(quarter);
+            double cos = Math.cos(quarter);
+            if (radius * 2 * Math.pow(sin, 6) / (27 * cos * cos) <= tolerance) {
+                break;
+            }
+            numSegments++;
+        }
+        return numSegments;
+    }
+
+    private static void arcToBezier(double cx, double cy, double rx, double ry,
+                                    double theta, double startAngle, double sweepAngle,
+                                    int numSegments, float endX, float endY, PathVisitor out) {
+        double eta = Math.toRadians(sweepAngle / numSegments);
+        double cosTheta = Math.cos(theta);
+        double sinTheta = Math.sin(theta);
+        double angle = Math.toRadians(startAngle);
+        float[] cubic = new float[6];
+
+        double prevX = cx + rx * Math.cos(angle) * cosTheta - ry * Math.sin(angle) * sinTheta;
+        double prevY = cy + rx * Math.cos(angle) * sinTheta + ry * Math.sin(angle) * cosTheta;
+
+        for (int i = 0; i < numSegments; i++) {
+            double nextAngle = angle + eta;
+            double cosAngle = Math.cos(angle);
+            double sinAngle = Math.sin(angle);
+            double cosNext = Math.cos(nextAngle);
+            double sinNext = Math.sin(nextAngle);
+
+            // The length of the tangents, for a unit circle.
+            double factor = (4.0 / 3.0) * Math.tan(eta / 4.0);
+
+            double x1 = prevX;
+            double y1 = prevY;
+
+            double dx1 = rx * (-sinAngle) * factor;
+            double dy1 = ry * cosAngle * factor;
+
+            double dx2 = rx * (-sinNext) * factor;
+            double dy2 = ry * cosNext * factor;
+
+            double x2 = cx + (rx * cosNext) * cosTheta - (ry * sinNext) * sinTheta;
+            double y2 = cy + (rx * cosNext) * sinTheta + (ry * sinNext) * cosTheta;
+
+            cubic[0] = (float) (x1 + dx1 * cosTheta - dy1 * sinTheta);
+            cubic[1] = (float) (y1 + dx1 * sinTheta + dy1 * cosTheta);
+            // The second control point is behind the end point on its tangent.
+            cubic[2] = (float) (x2 - dx2 * cosTheta + dy2 * sinTheta);
+            cubic[3] = (float) (y2 - dx2 * sinTheta - dy2 * cosTheta);
+            // End exactly where the arc does, without the rounding errors.
+            boolean last = i == numSegments - 1;
+            cubic[4] = last ? endX : (float) x2;
+            cubic[5] = last ? endY : (float) y2;
+            out.segment('C', cubic, 0);
+
+            angle = nextAngle;
+            prevX = x2;
+            prevY = y2;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Path stage which replaces the arcs with cubic curves, so the path is drawn
+ * without any trigonometry at runtime. The other segments are passed through
+ * as they are.
+ */
+final class ArcLowerer implements PathVisitor {
+    private final PathVisitor mNext;
+    private final float mTolerance;
+    private final PathPen mPen = new PathPen();
+    private final float[] mAbs = new float[7];
+    private boolean mAfterArc;
+
+    /**
+     * @param tolerance the largest distance allowed between the curves and the arc
+     */
+    ArcLowerer(float tolerance, PathVisitor next) {
+        mTolerance = tolerance;
+        mNext = next;
+    }
+
+    @Override
+    public void segment(char verb, float[] in, int k) {
+        PathPen pen = mPen;
+        char upper = Character.toUpperCase(verb);
+        if (upper == 'A') {
+            float[] abs = mAbs;
+            pen.toAbsolute(verb, in, k, abs);
+            ArcConverter.toCubics(pen.mX, pen.mY, abs[0], abs[1], abs[2], abs[3] != 0, abs[4] != 0,
+                    abs[5], abs[6], mTolerance, mNext);
+        } else if (upper == 'S' && mAfterArc) {
+            // A smooth curve doesn't reflect an arc, but it would reflect the
+            // curves it became.
+            pen.toAbsolute(verb, in, k, mAbs);
+            mNext.segment('C', mAbs, 0);
+        } else {
+            mNext.segment(verb, in, k);
+        }
+        mAfterArc = upper == 'A';
+        pen.update(verb, in, k);
+    }
+
+    @Override
+    public void end() {
+        mNext.end();
+    }
+}
@@ -0,0 +1,600 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the VectorDrawable in the compiled binary XML format, as aapt2
+ * leaves it in the APK: a string pool, the resource ids of the attribute
+ * names, and one chunk per namespace and element start and end. The values
+ * of the framework attributes are typed, as colors, floats, dimensions and
+ * enums, so the drawable can be inflated without parsing text.
+ * <p>
+ * The string pool comes first, so the whole document is buffered, and
+ * written by {@link #flush()} once the root element is closed. The stream
+ * belongs to the caller, it is never closed here.
+ */
+final class BinaryXmlWriter implements VectorDrawableOutput {
+    // The chunk types, from the framework's ResourceTypes.h.
+    static final int RES_STRING_POOL_TYPE = 0x0001;
+    static final int RES_XML_TYPE = 0x0003;
+    static final int RES_XML_START_NAMESPACE_TYPE = 0x0100;
+    static final int RES_XML_END_NAMESPACE_TYPE = 0x0101;
+    static final int RES_XML_START_ELEMENT_TYPE = 0x0102;
+    static final int RES_XML_END_ELEMENT_TYPE = 0x0103;
+    static final int RES_XML_RESOURCE_MAP_TYPE = 0x0180;
+    static final int UTF8_FLAG = 1 << 8;
+
+    // The value types, from Res_value.
+    static final int TYPE_STRING = 0x03;
+    static final int TYPE_FLOAT = 0x04;
+    static final int TYPE_DIMENSION = 0x05;
+    static final int TYPE_INT_DEC = 0x10;
+    static final int TYPE_INT_COLOR_ARGB8 = 0x1c;
+    static final int TYPE_INT_COLOR_RGB8 = 0x1d;
+    static final int COMPLEX_UNIT_DIP = 1;
+
+    private static final int NO_INDEX = -1;
+    private static final int NODE_HEADER_SIZE = 16;
+    private static final int ATTRIBUTE_SIZE = 20;
+    private static final int STRING_POOL_HEADER_SIZE = 28;
+    // Above it, the lengths don't fit in a UTF-8 pool.
+    private static final int MAX_UTF8_LENGTH = 0x7FFF;
+
+    /**
+     * The framework attributes the converter writes, with their resource id
+     * and how their value is compiled.
+     */
+    enum AndroidAttribute {
+        NAME("name", 0x01010003, ValueKind.STRING),
+        HEIGHT("height", 0x01010155, ValueKind.DIMENSION),
+        WIDTH("width", 0x01010159, ValueKind.DIMENSION),
+        ALPHA("alpha", 0x0101031f, ValueKind.FLOAT),
+        VIEWPORT_WIDTH("viewportWidth", 0x01010402, ValueKind.FLOAT),
+        VIEWPORT_HEIGHT("viewportHeight", 0x01010403, ValueKind.FLOAT),
+        FILL_COLOR("fillColor", 0x01010404, ValueKind.COLOR),
+        PATH_DATA("pathData", 0x01010405, ValueKind.STRING),
+        STROKE_COLOR("strokeColor", 0x01010406, ValueKind.COLOR),
+        STROKE_WIDTH("strokeWidth", 0x01010407, ValueKind.FLOAT),
+        STROKE_LINE_CAP("strokeLineCap", 0x0101040b, ValueKind.LINE_CAP),
+        STROKE_LINE_JOIN("strokeLineJoin", 0x0101040c, ValueKind.LINE_JOIN),
+        STROKE_MITER_LIMIT("strokeMiterLimit", 0x0101040d, ValueKind.FLOAT),
+        STROKE_ALPHA("strokeAlpha", 0x010104cb, ValueKind.FLOAT),
+        FILL_ALPHA("fillAlpha", 0x010104cc, ValueKind.FLOAT);
+
+        final String mName;
+        final int mId;
+        final ValueKind mKind;
+
+        AndroidAttribute(String name, int id, ValueKind kind) {
+            mName = name;
+            mId = id;
+            mKind = kind;
+        }
+
+        /**
+         * @return the attribute with the local name, ignoring case, or null
+         *         if it isn't a known framework attribute.
+         */
+        static AndroidAttribute find(String name) {
+            for (AndroidAttribute attribute : values()) {
+                if (attribute.mName.equalsIgnoreCase(name)) {
+                    return attribute;
+                }
+            }
+            return null;
+        }
+    }
+
+    enum ValueKind {
+        STRING,
+        FLOAT,
+        DIMENSION,
+        COLOR,
+        LINE_CAP,
+        LINE_JOIN
+    }
+
+    private final OutputStream mOut;
+
+    // The strings in the order of their first use. Their final index puts the
+    // attribute names with a resource id first, as the resource map needs.
+    private final List<String> mStrings = new ArrayList<>();
+    private final Map<String, Integer> mStringIndices = new HashMap<>();
+    private final List<Integer> mStringIds = new ArrayList<>();
+    // The positions in mBody which hold a string index, patched on flush.
+    private int[] mStringRefs = new int[64];
+    private int mStringRefCount;
+
+    private byte[] mBody = new byte[4096];
+    private int mSize;
+
+    // The element whose start tag is being written.
+    private String mElementName;
+    private final List<String> mPendingNamespaces = new ArrayList<>();
+    private final List<String> mAttributeNames = new ArrayList<>();
+    private final List<String> mAttributeValues = new ArrayList<>();
+
+    // The declared namespaces as prefix and uri pairs, with the depth of the
+    // element which declared them.
+    private final List<String> mNamespaces = new ArrayList<>();
+    private final List<Integer> mNamespaceDepths = new ArrayList<>();
+    private int mDepth;
+
+    BinaryXmlWriter(OutputStream out) {
+        mOut = out;
+    }
+
+    @Override
+    public void startTag(String indent, String name) {
+        mElementName = name;
+    }
+
+    @Override
+    public void namespace(String prefix, String uri) {
+        mPendingNamespaces.add(prefix);
+        mPendingNamespaces.add(uri);
+    }
+
+    @Override
+    public void attribute(String name, CharSequence value) {
+        mAttributeNames.add(name);
+        mAttributeValues.add(value.toString());
+    }
+
+    @Override
+    public void endStartTag() {
+        writeStartElement();
+        mDepth++;
+    }
+
+    @Override
+    public void endEmptyTag() {
+        writeStartElement();
+        writeEndElement(mElementName);
+    }
+
+    @Override
+    public void endTag(String indent, String name) {
+        mDepth--;
+        writeEndElement(name);
+        // The namespaces end after the element which declared them.
+        for (int i = mNamespaceDepths.size() - 1; i >= 0 && mNamespaceDepths.get(i) == mDepth; i--) {
+            writeNamespace(RES_XML_END_NAMESPACE_TYPE, mNamespaces.get(2 * i), mNamespaces.get(2 * i + 1));
+            mNamespaceDepths.remove(i);
+            mNamespaces.remove(2 * i + 1);
+            mNamespaces.remove(2 * i);
+        }
+    }
+
+    /**
+     * Write the whole document, and flush the stream. It must be called once,
+     * after the end tag of the root element.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (mDepth != 0 || mElementName == null) {
+            throw new IllegalStateException("The document isn't complete");
+        }
+        // The attribute names with a resource id come first, in their order of use.
+        int count = mStrings.size();
+        int[] remap = new int[count];
+        int mapped = 0;
+        for (int i = 0; i < count; i++) {
+            if (mStringIds.get(i) != 0) {
+                remap[i] = mapped++;
+            }
+        }
+        int next = mapped;
+        int[] ids = new int[mapped];
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (mStringIds.get(i) != 0) {
+                ids[remap[i]] = mStringIds.get(i);
+            } else {
+                remap[i] = next++;
+            }
+            strings[remap[i]] = mStrings.get(i);
+        }
+        for (int i = 0; i < mStringRefCount; i++) {
+            int position = mStringRefs[i];
+            setInt(mBody, position, remap[getInt(mBody, position)]);
+        }
+
+        byte[] pool = encodeStringPool(strings);
+        int mapSize = 8 + 4 * mapped;
+        byte[] header = new byte[8 + mapSize];
+        setChunkHeader(header, 0, RES_XML_TYPE, 8, header.length + pool.length + mSize);
+        setChunkHeader(header, 8, RES_XML_RESOURCE_MAP_TYPE, 8, mapSize);
+        for (int i = 0; i < mapped; i++) {
+            setInt(header, 16 + 4 * i, ids[i]);
+        }
+        // The resource map follows the string pool.
+        mOut.write(header, 0, 8);
+        mOut.write(pool);
+        mOut.write(header, 8, mapSize);
+        mOut.write(mBody, 0, mSize);
+        mOut.flush();
+    }
+
+    private void writeStartElement() {
+        for (int i = 0; i < mPendingNamespaces.size(); i += 2) {
+            String prefix = mPendingNamespaces.get(i);
+            String uri = mPendingNamespaces.get(i + 1);
+            writeNamespace(RES_XML_START_NAMESPACE_TYPE, prefix, uri);
+            mNamespaces.add(prefix);
+            mNamespaces.add(uri);
+            mNamespaceDepths.add(mDepth);
+        }
+        mPendingNamespaces.clear();
+
+        int attributeCount = mAttributeNames.size();
+        Integer[] order = new Integer[attributeCount];
+        int[] ids = new int[attributeCount];
+        for (int i = 0; i < attributeCount; i++) {
+            order[i] = i;
+            AndroidAttribute attribute = findAttribute(mAttributeNames.get(i));
+            // The attributes without an id go last.
+            ids[i] = attribute != null ? attribute.mId : -1;
+        }
+        // The attributes are sorted by resource id, like aapt2 does.
+        Arrays.sort(order, (i, j) -> Integer.compareUnsigned(ids[i], ids[j]));
+
+        writeNodeHeader(RES_XML_START_ELEMENT_TYPE, 36 + ATTRIBUTE_SIZE * attributeCount);
+        writeInt(NO_INDEX);
+        writeStringRef(mElementName, 0);
+        writeShort(20);
+        writeShort(ATTRIBUTE_SIZE);
+        writeShort(attributeCount);
+        // No id, class or style attribute.
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        for (int i : order) {
+            writeAttribute(mAttributeNames.get(i), mAttributeValues.get(i));
+        }
+        mAttributeNames.clear();
+        mAttributeValues.clear();
+    }
+
+    private void writeAttribute(String qualifiedName, String value) {
+        int colon = qualifiedName.indexOf(':');
+        String uri = colon > 0 ? namespaceUri(qualifiedName.substring(0, colon)) : null;
+        String name = uri != null ? qualifiedName.substring(colon + 1) : qualifiedName;
+        AndroidAttribute attribute = findAttribute(qualifiedName);
+        if (uri != null) {
+            writeStringRef(uri, 0);
+        } else {
+            writeInt(NO_INDEX);
+        }
+        if (attribute != null) {
+            writeStringRef(attribute.mName, attribute.mId);
+        } else {
+            writeStringRef(name, 0);
+        }
+
+        ValueKind kind = attribute != null ? attribute.mKind : ValueKind.STRING;
+        int type = TYPE_STRING;
+        int data = 0;
+        switch (kind) {
+            case FLOAT:
+                try {
+                    data = Float.floatToIntBits(FloatParser.parseFloat(value));
+                    type = TYPE_FLOAT;
+                } catch (NumberFormatException e) {
+                    // Kept as a string.
+                }
+                break;
+            case DIMENSION:
+                if (value.endsWith("dp")) {
+                    try {
+                        data = floatToComplex(FloatParser.parseFloat(value, 0, value.length() - 2))
+                                | COMPLEX_UNIT_DIP;
+                        type = TYPE_DIMENSION;
+                    } catch (NumberFormatException e) {
+                        // Kept as a string.
+                    }
+                }
+                break;
+            case COLOR:
+                long color = parseColor(value);
+                if (color >= 0) {
+                    data = (int) color;
+                    type = value.length() == 7 ? TYPE_INT_COLOR_RGB8 : TYPE_INT_COLOR_ARGB8;
+                }
+                break;
+            case LINE_CAP:
+                for (PresentationStyle.LineCap cap : PresentationStyle.LineCap.values()) {
+                    if (cap.mName.equals(value)) {
+                        data = cap.ordinal();
+                        type = TYPE_INT_DEC;
+                    }
+                }
+                break;
+            case LINE_JOIN:
+                for (PresentationStyle.LineJoin join : PresentationStyle.LineJoin.values()) {
+                    if (join.mName.equals(value)) {
+                        data = join.ordinal();
+                        type = TYPE_INT_DEC;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (type == TYPE_STRING) {
+            writeStringRef(value, 0);
+        } else {
+            // Like aapt2, the raw value is only kept for strings.
+            writeInt(NO_INDEX);
+        }
+        // The size of the value, a reserved 0 and the type.
+        writeShort(8);
+        ensureRoom(2);
+        mBody[mSize++] = 0;
+        mBody[mSize++] = (byte) type;
+        if (type == TYPE_STRING) {
+            writeStringRef(value, 0);
+        } else {
+            writeInt(data);
+        }
+    }
+
+    /**
+     * @return the color written as #RRGGBB or #AARRGGBB, as ARGB, or -1 for
+     *         any other value. This is the Android order, not the CSS one.
+     */
+    private static long parseColor(String value) {
+        int length = value.length();
+        if ((length != 7 && length != 9) || value.charAt(0) != '#') {
+            return -1;
+        }
+        long color = length == 7 ? 0xFF : 0;
+        for (int i = 1; i < length; i++) {
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            color = color << 4 | digit;
+        }
+        return color;
+    }
+
+    private void writeEndElement(String name) {
+        writeNodeHeader(RES_XML_END_ELEMENT_TYPE, 24);
+        writeInt(NO_INDEX);
+        writeStringRef(name, 0);
+    }
+
+    private void writeNamespace(int type, String prefix, String uri) {
+        writeNodeHeader(type, 24);
+        writeStringRef(prefix, 0);
+        writeStringRef(uri, 0);
+    }
+
+    /**
+     * Write the header of a tree node, with no line number or comment.
+     */
+    private void writeNodeHeader(int type, int size) {
+        writeShort(type);
+        writeShort(NODE_HEADER_SIZE);
+        writeInt(size);
+        writeInt(0);
+        writeInt(NO_INDEX);
+    }
+
+    /**
+     * @return the uri declared for the prefix, or null if there is none.
+     */
+    private String namespaceUri(String prefix) {
+        for (int i = mNamespaces.size() - 2; i >= 0; i -= 2) {
+            if (mNamespaces.get(i).equals(prefix)) {
+                return mNamespaces.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    private AndroidAttribute findAttribute(String qualifiedName) {
+        int colon = qualifiedName.indexOf(':');
+        if (colon <= 0 || !SdkConstants.ANDROID_URI.equals(namespaceUri(qualifiedName.substring(0, colon)))) {
+            return null;
+        }
+        return AndroidAttribute.find(qualifiedName.substring(colon + 1));
+    }
+
+    /**
+     * Write the index of the string, which is patched to its final index on
+     * flush.
+     *
+     * @param resourceId the resource id of the attribute name, or 0
+     */
+    private void writeStringRef(String s, int resourceId) {
+        Integer index = mStringIndices.get(s);
+        if (index == null) {
+            index = mStrings.size();
+            mStrings.add(s);
+            mStringIds.add(resourceId);
+            mStringIndices.put(s, index);
+        } else if (resourceId != 0) {
+            mStringIds.set(index, resourceId);
+        }
+        if (mStringRefCount == mStringRefs.length) {
+            mStringRefs = Arrays.copyOf(mStringRefs, mStringRefCount * 2);
+        }
+        mStringRefs[mStringRefCount++] = mSize;
+        writeInt(index);
+    }
+
+    /**
+     * @return the string pool chunk, in UTF-8 unless a string is too long for it.
+     */
+    private static byte[] encodeStringPool(String[] strings) {
+        byte[][] encoded = new byte[strings.length][];
+        boolean utf8 = true;
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+            utf8 &= encoded[i].length <= MAX_UTF8_LENGTH;
+        }
+        int stringsStart = STRING_POOL_HEADER_SIZE + 4 * strings.length;
+        int dataSize = 0;
+        for (int i = 0; i < strings.length; i++) {
+            int length = strings[i].length();
+            if (utf8) {
+                dataSize += (length > 0x7F ? 2 : 1) + (encoded[i].length > 0x7F ? 2 : 1)
+                        + encoded[i].length + 1;
+            } else {
+                dataSize += (length > 0x7FFF ? 4 : 2) + 2 * length + 2;
+            }
+        }
+        int size = (stringsStart + dataSize + 3) & ~3;
+        byte[] pool = new byte[size];
+        setChunkHeader(pool, 0, RES_STRING_POOL_TYPE, STRING_POOL_HEADER_SIZE, size);
+        setInt(pool, 8, strings.length);
+        // No styles.
+        setInt(pool, 12, 0);
+        setInt(pool, 16, utf8 ? UTF8_FLAG : 0);
+        setInt(pool, 20, stringsStart);
+        setInt(pool, 24, 0);
+
+        int position = stringsStart;
+        for (int i = 0; i < strings.length; i++) {
+            setInt(pool, STRING_POOL_HEADER_SIZE + 4 * i, position - stringsStart);
+            if (utf8) {
+                // The length in UTF-16 units, then in bytes, then the bytes and a 0.
+                position = putUtf8Length(pool, position, strings[i].length());
+                position = putUtf8Length(pool, position, encoded[i].length);
+                System.arraycopy(encoded[i], 0, pool, position, encoded[i].length);
+                position += encoded[i].length + 1;
+            } else {
+                String s = strings[i];
+                int length = s.length();
+                if (length > 0x7FFF) {
+                    setShort(pool, position, 0x8000 | (length >>> 16));
+                    position += 2;
+                }
+                setShort(pool, position, length & 0xFFFF);
+                position += 2;
+                for (int k = 0; k < length; k++) {
+                    setShort(pool, position, s.charAt(k));
+                    position += 2;
+                }
+                position += 2;
+            }
+        }
+        return pool;
+    }
+
+    private static int putUtf8Length(byte[] pool, int position, int length) {
+        if (length > 0x7F) {
+            pool[position++] = (byte) (0x80 | (length >> 8));
+        }
+        pool[position++] = (byte) length;
+        return position;
+    }
+
+    /**
+     * Encode the value in the complex format of dimensions, without the unit.
+     * This is aapt's floatToComplex: the radix with the most precision is
+     * picked for the 23 bits of the mantissa.
+     */
+    static int floatToComplex(float value) {
+        boolean negative = value < 0;
+        if (negative) {
+            value = -value;
+        }
+        long bits = (long) (value * (1 << 23) + 0.5f);
+        int radix;
+        int shift;
+        if ((bits & 0x7fffff) == 0) {
+            // 23p0
+            radix = 0;
+            shift = 23;
+        } else if ((bits & 0xffffffffff800000L) == 0) {
+            // 0p23
+            radix = 3;
+            shift = 0;
+        } else if ((bits & 0xffffffff80000000L) == 0) {
+            // 8p15
+            radix = 2;
+            shift = 8;
+        } else if ((bits & 0xffffff8000000000L) == 0) {
+            // 16p7
+            radix = 1;
+            shift = 16;
+        } else {
+            radix = 0;
+            shift = 23;
+        }
+        int mantissa = (int) ((bits >> shift) & 0xffffff);
+        if (negative) {
+            mantissa = -mantissa & 0xffffff;
+        }
+        return radix << 4 | mantissa << 8;
+    }
+
+    private void writeShort(int value) {
+        ensureRoom(2);
+        setShort(mBody, mSize, value);
+        mSize += 2;
+    }
+
+    private void writeInt(int value) {
+        ensureRoom(4);
+        setInt(mBody, mSize, value);
+        mSize += 4;
+    }
+
+    private void ensureRoom(int length) {
+        if (mSize + length > mBody.length) {
+            mBody = Arrays.copyOf(mBody, Math.max(mBody.length * 2, mSize + length));
+        }
+    }
+
+    private static void setChunkHeader(byte[] b, int position, int type, int headerSize, int size) {
+        setShort(b, position, type);
+        setShort(b, position + 2, headerSize);
+        setInt(b, position + 4, size);
+    }
+
+    // The format is little endian.
+    private static void setShort(byte[] b, int position, int value) {
+        b[position] = (byte) value;
+        b[position + 1] = (byte) (value >>> 8);
+    }
+
+    private static void setInt(byte[] b, int position, int value) {
+        b[position] = (byte) value;
+        b[position + 1] = (byte) (value >>> 8);
+        b[position + 2] = (byte) (value >>> 16);
+        b[position + 3] = (byte) (value >>> 24);
+    }
+
+    private static int getInt(byte[] b, int position) {
+        return (b[position] & 0xFF) | (b[position + 1] & 0xFF) << 8
+                | (b[position + 2] & 0xFF) << 16 | (b[position + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * The style a group passes down to its children. It is computed once per
+ * group from the parent's style and the group's own "style" and "display"
+ * attributes, and never modified afterwards.
+ */
+final class ComputedStyle {
+    static final ComputedStyle EMPTY = new ComputedStyle(new PresentationStyle(), false);
+
+    // Never modified once the computed style is created.
+    private final PresentationStyle mStyle;
+    private final boolean mDisplayNone;
+
+    private ComputedStyle(PresentationStyle style, boolean displayNone) {
+        mStyle = style;
+        mDisplayNone = displayNone;
+    }
+
+    /**
+     * @return true if the group and all of its content are not rendered.
+     */
+    public boolean isDisplayNone() {
+        return mDisplayNone;
+    }
+
+    /**
+     * Compute the style of a child group.
+     *
+     * @param style the group's "style" attribute, or null
+     * @param display the group's "display" attribute, or null
+     * @return the computed style, which is this instance if the group doesn't change anything
+     */
+    public ComputedStyle derive(String style, String display) {
+        if (mDisplayNone || "none".equals(display)) {
+            return mDisplayNone ? this : new ComputedStyle(mStyle, true);
+        }
+        if (style == null) {
+            return this;
+        }
+
+        PresentationStyle presentation = new PresentationStyle();
+        presentation.copyFrom(mStyle);
+        boolean displayNone = StyleParser.applyStyle(style, presentation);
+        return new ComputedStyle(presentation, displayNone);
+    }
+
+    /**
+     * Fill the inherited presentation attributes into the leaf.
+     */
+    public void applyTo(SvgLeafNode leaf) {
+        leaf.inheritStyle(mStyle);
+    }
+}
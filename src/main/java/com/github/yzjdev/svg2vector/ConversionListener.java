@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Receives diagnostics while an SVG file is converted. Set it with
+ * {@link ConverterContext#setConversionListener}; when no listener is set, no
+ * event is built at all.
+ * <p>
+ * All methods do nothing by default, so a listener only overrides the events
+ * it cares about. Line numbers are 1 based, or -1 when the parser doesn't
+ * report them.
+ */
+public interface ConversionListener {
+    /**
+     * A shape element (path, rect, line, ...) was converted into a path.
+     */
+    default void onShape(String element, int lineNumber) {
+    }
+
+    /**
+     * A group and all of its content were skipped, because of "display: none".
+     */
+    default void onGroupSkipped(int lineNumber) {
+    }
+
+    /**
+     * An element which VectorDrawable can't represent was found. Its shapes
+     * may still be converted, but without the element's own effect.
+     */
+    default void onUnsupportedElement(String element, int lineNumber) {
+    }
+
+    /**
+     * A presentation attribute had a value which can't be converted, and was dropped.
+     */
+    default void onUnsupportedValue(String attribute, String value, int lineNumber) {
+    }
+
+    /**
+     * @return true to receive {@link #onTreeDump} once the SVG tree is built.
+     */
+    default boolean isTreeDumpEnabled() {
+        return false;
+    }
+
+    /**
+     * The converted SVG tree, one node per line, indented by depth.
+     */
+    default void onTreeDump(String dump) {
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Holds everything which is expensive to set up for a single conversion: the
+ * XML readers, the regex matchers and the scratch buffers.
+ * <p>
+ * A context can be reused for any number of conversions, by {@link Svg2Vector}
+ * and {@link VdParser}, but it is not thread safe. Use one context per thread.
+ */
+public final class ConverterContext {
+    /**
+     * Value for the memory map threshold which always reads the file through the heap.
+     */
+    public static final long NO_MEMORY_MAP = -1;
+
+    private static final Pattern SIZE_PATTERN =
+            Pattern.compile("^\\s*(\\d+(\\.\\d+)*)\\s*([a-zA-Z]+)\\s*$");
+    private static final Pattern DIGIT_MINUS_PATTERN = Pattern.compile("(\\d)-");
+
+    private XMLReader mSvgReader;
+    private XMLReader mVdReader;
+    private final Matcher mSizeMatcher = SIZE_PATTERN.matcher("");
+    private final Matcher mDigitMinusMatcher = DIGIT_MINUS_PATTERN.matcher("");
+    private final StringBuilder mStringBuilder = new StringBuilder();
+    private float[] mFloatBuffer = new float[64];
+    private long mMemoryMapThreshold = NO_MEMORY_MAP;
+    private ConversionListener mListener;
+    private final OutputOptions mOutputOptions = new OutputOptions();
+
+    /**
+     * Files of at least this size are memory mapped instead of read through the heap.
+     *
+     * @param threshold the minimum file size in bytes, or {@link #NO_MEMORY_MAP}
+     */
+    public void setMemoryMapThreshold(long threshold) {
+        mMemoryMapThreshold = threshold;
+    }
+
+    public long getMemoryMapThreshold() {
+        return mMemoryMapThreshold;
+    }
+
+    /**
+     * @return the options for the written VectorDrawables, which can be changed in place.
+     */
+    public OutputOptions getOutputOptions() {
+        return mOutputOptions;
+    }
+
+    /**
+     * Receive the diagnostics of the following conversions.
+     *
+     * @param listener the listener, or null to turn the diagnostics off
+     */
+    public void setConversionListener(ConversionListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * @return the listener, or null if there is none.
+     */
+    public ConversionListener getConversionListener() {
+        return mListener;
+    }
+
+    /**
+     * @return the namespace aware reader used for the SVG input, created on first use.
+     */
+    XMLReader getSvgReader() throws ParserConfigurationException, SAXException {
+        if (mSvgReader == null) {
+            mSvgReader = newReader(true);
+        }
+        return mSvgReader;
+    }
+
+    /**
+     * @return the reader used for VectorDrawable's XML, created on first use.
+     */
+    XMLReader getVdReader() throws ParserConfigurationException, SAXException {
+        if (mVdReader == null) {
+            mVdReader = newReader(false);
+        }
+        return mVdReader;
+    }
+
+    private static XMLReader newReader(boolean namespaceAware)
+            throws ParserConfigurationException, SAXException {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        try {
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException | SAXNotRecognizedException | SAXNotSupportedException e) {
+            // Android不支持该特性，忽略
+        }
+        return factory.newSAXParser().getXMLReader();
+    }
+
+    /**
+     * @return a matcher for "number unit" dimensions, like "24dp", reset to the input.
+     */
+    Matcher sizeMatcher(CharSequence input) {
+        return mSizeMatcher.reset(input);
+    }
+
+    /**
+     * Insert a separator between a digit and a following negative sign, so
+     * "1-2" becomes "1,-2".
+     */
+    String separateNegativeNumbers(String pathData) {
+        return mDigitMinusMatcher.reset(pathData).replaceAll("$1,-");
+    }
+
+    /**
+     * @return a scratch buffer of at least the given length. The content is undefined,
+     *         and the buffer is only valid until the next call.
+     */
+    float[] getFloatBuffer(int minLength) {
+        if (mFloatBuffer.length < minLength) {
+            mFloatBuffer = new float[Math.max(minLength, mFloatBuffer.length * 2)];
+        }
+        return mFloatBuffer;
+    }
+
+    /**
+     * @return the shared, emptied StringBuilder. It is only valid until the next call.
+     */
+    StringBuilder getStringBuilder() {
+        mStringBuilder.setLength(0);
+        return mStringBuilder;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Resolves CSS colors into packed ARGB values: the named colors, hex colors
+ * of 3, 4, 6 or 8 digits, and the rgb(), rgba(), hsl() and hsla() functions,
+ * with either the comma or the space separated syntax. The alpha of the
+ * color is folded into the top byte.
+ */
+final class CssColor {
+    /**
+     * Returned for a value which isn't a CSS color.
+     */
+    static final long NO_COLOR = -1;
+    /**
+     * Returned for "currentColor", which the caller resolves to the current
+     * value of the color property.
+     */
+    static final long CURRENT_COLOR = -2;
+
+    // The CSS named colors, with their RGB value at the same index.
+    private static final String[] NAMES = {
+            "aliceblue", "antiquewhite", "aqua", "aquamarine", "azure", "beige", "bisque", "black",
+            "blanchedalmond", "blue", "blueviolet", "brown", "burlywood", "cadetblue", "chartreuse",
+            "chocolate", "coral", "cornflowerblue", "cornsilk", "crimson", "cyan", "darkblue",
+            "darkcyan", "darkgoldenrod", "darkgray", "darkgreen", "darkgrey", "darkkhaki",
+            "darkmagenta", "darkolivegreen", "darkorange", "darkorchid", "darkred", "darksalmon",
+            "darkseagreen", "darkslateblue", "darkslategray", "darkslategrey", "darkturquoise",
+            "darkviolet", "deeppink", "deepskyblue", "dimgray", "dimgrey", "dodgerblue",
+            "firebrick", "floralwhite", "forestgreen", "fuchsia", "gainsboro", "ghostwhite", "gold",
+            "goldenrod", "gray", "green", "greenyellow", "grey", "honeydew", "hotpink", "indianred",
+            "indigo", "ivory", "khaki", "lavender", "lavenderblush", "lawngreen", "lemonchiffon",
+            "lightblue", "lightcoral", "lightcyan", "lightgoldenrodyellow", "lightgray",
+            "lightgreen", "lightgrey", "lightpink", "lightsalmon", "lightseagreen", "lightskyblue",
+            "lightslategray", "lightslategrey", "lightsteelblue", "lightyellow", "lime",
+            "limegreen", "linen", "magenta", "maroon", "mediumaquamarine", "mediumblue",
+            "mediumorchid", "mediumpurple", "mediumseagreen", "mediumslateblue",
+            "mediumspringgreen", "mediumturquoise", "mediumvioletred", "midnightblue", "mintcream",
+            "mistyrose", "moccasin", "navajowhite", "navy", "oldlace", "olive", "olivedrab",
+            "orange", "orangered", "orchid", "palegoldenrod", "palegreen", "paleturquoise",
+            "palevioletred", "papayawhip", "peachpuff", "peru", "pink", "plum", "powderblue",
+            "purple", "rebeccapurple", "red", "rosybrown", "royalblue", "saddlebrown", "salmon",
+            "sandybrown", "seagreen", "seashell", "sienna", "silver", "skyblue", "slateblue",
+            "slategray", "slategrey", "snow", "springgreen", "steelblue", "tan", "teal", "thistle",
+            "tomato", "turquoise", "violet", "wheat", "white", "whitesmoke", "yellow",
+            "yellowgreen"
+    };
+    private static final int[] RGB = {
+            0xF0F8FF, 0xFAEBD7, 0x00FFFF, 0x7FFFD4, 0xF0FFFF, 0xF5F5DC, 0xFFE4C4, 0x000000,
+            0xFFEBCD, 0x0000FF, 0x8A2BE2, 0xA52A2A, 0xDEB887, 0x5F9EA0, 0x7FFF00, 0xD2691E,
+            0xFF7F50, 0x6495ED, 0xFFF8DC, 0xDC143C, 0x00FFFF, 0x00008B, 0x008B8B, 0xB8860B,
+            0xA9A9A9, 0x006400, 0xA9A9A9, 0xBDB76B, 0x8B008B, 0x556B2F, 0xFF8C00, 0x9932CC,
+            0x8B0000, 0xE9967A, 0x8FBC8F, 0x483D8B, 0x2F4F4F, 0x2F4F4F, 0x00CED1, 0x9400D3,
+            0xFF1493, 0x00BFFF, 0x696969, 0x696969, 0x1E90FF, 0xB22222, 0xFFFAF0, 0x228B22,
+            0xFF00FF, 0xDCDCDC, 0xF8F8FF, 0xFFD700, 0xDAA520, 0x808080, 0x008000, 0xADFF2F,
+            0x808080, 0xF0FFF0, 0xFF69B4, 0xCD5C5C, 0x4B0082, 0xFFFFF0, 0xF0E68C, 0xE6E6FA,
+            0xFFF0F5, 0x7CFC00, 0xFFFACD, 0xADD8E6, 0xF08080, 0xE0FFFF, 0xFAFAD2, 0xD3D3D3,
+            0x90EE90, 0xD3D3D3, 0xFFB6C1, 0xFFA07A, 0x20B2AA, 0x87CEFA, 0x778899, 0x778899,
+            0xB0C4DE, 0xFFFFE0, 0x00FF00, 0x32CD32, 0xFAF0E6, 0xFF00FF, 0x800000, 0x66CDAA,
+            0x0000CD, 0xBA55D3, 0x9370DB, 0x3CB371, 0x7B68EE, 0x00FA9A, 0x48D1CC, 0xC71585,
+            0x191970, 0xF5FFFA, 0xFFE4E1, 0xFFE4B5, 0xFFDEAD, 0x000080, 0xFDF5E6, 0x808000,
+            0x6B8E23, 0xFFA500, 0xFF4500, 0xDA70D6, 0xEEE8AA, 0x98FB98, 0xAFEEEE, 0xDB7093,
+            0xFFEFD5, 0xFFDAB9, 0xCD853F, 0xFFC0CB, 0xDDA0DD, 0xB0E0E6, 0x800080, 0x663399,
+            0xFF0000, 0xBC8F8F, 0x4169E1, 0x8B4513, 0xFA8072, 0xF4A460, 0x2E8B57, 0xFFF5EE,
+            0xA0522D, 0xC0C0C0, 0x87CEEB, 0x6A5ACD, 0x708090, 0x708090, 0xFFFAFA, 0x00FF7F,
+            0x4682B4, 0xD2B48C, 0x008080, 0xD8BFD8, 0xFF6347, 0x40E0D0, 0xEE82EE, 0xF5DEB3,
+            0xFFFFFF, 0xF5F5F5, 0xFFFF00, 0x9ACD32
+    };
+    // A perfect hash of the names: the first hash picks the seed of the
+    // second, which gives a slot of its own to every name. The seeds were
+    // found offline, and are checked when the table is built.
+    private static final byte[] SEEDS = {
+            4, 1, 7, 2, 1, 9, 0, 1, 1, 2, 2, 1, 5, 1, 2, 0, 1, 0, 3, 3, 2, 6, 1, 1, 1, 3, 2, 1, 8,
+            0, 2, 1, 2, 1, 1, 3, 2, 2, 3, 2, 2, 2, 3, 6, 1, 4, 1, 5, 3, 1, 2, 2, 3, 2, 3, 7, 4, 1,
+            3, 2, 1, 2, 1, 5
+    };
+    // The index of the name in each slot plus one, or 0 for an empty slot.
+    private static final short[] SLOTS = new short[256];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            int slot = slot(NAMES[i], 0, NAMES[i].length());
+            if (SLOTS[slot] != 0) {
+                throw new IllegalStateException("Collision for " + NAMES[i]);
+            }
+            SLOTS[slot] = (short) (i + 1);
+        }
+    }
+
+    private CssColor() {
+    }
+
+    /**
+     * @return the color as ARGB, CURRENT_COLOR, or NO_COLOR if the value in
+     *         the region [start, end) isn't a CSS color. "none" is fully
+     *         transparent.
+     * @throws IllegalArgumentException if the value is a color function with
+     *         invalid arguments
+     */
+    static long parse(CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return NO_COLOR;
+        }
+        if (s.charAt(start) == '#') {
+            return parseHex(s, start + 1, end);
+        }
+        int open = indexOf(s, '(', start, end);
+        if (open >= 0) {
+            return parseFunction(s, start, open, end);
+        }
+        if (StyleParser.regionEquals(s, start, end, "none")
+                || StyleParser.regionEquals(s, start, end, "transparent")) {
+            return 0;
+        }
+        if (StyleParser.regionEquals(s, start, end, "currentcolor")) {
+            return CURRENT_COLOR;
+        }
+        int index = SLOTS[slot(s, start, end)] - 1;
+        if (index >= 0 && StyleParser.regionEquals(s, start, end, NAMES[index])) {
+            return 0xFF000000L | RGB[index];
+        }
+        return NO_COLOR;
+    }
+
+    private static long parseHex(CharSequence s, int start, int end) {
+        long value = 0;
+        for (int k = start; k < end; k++) {
+            int digit = Character.digit(s.charAt(k), 16);
+            if (digit < 0) {
+                return NO_COLOR;
+            }
+            value = (value << 4) | digit;
+        }
+        switch (end - start) {
+            case 3:
+                // With an opaque alpha digit added.
+                value = expandShortHex(value << 4 | 0xF);
+                break;
+            case 4:
+                value = expandShortHex(value);
+                break;
+            case 6:
+                return 0xFF000000L | value;
+            case 8:
+                break;
+            default:
+                return NO_COLOR;
+        }
+        // From RRGGBBAA to AARRGGBB.
+        return (value >>> 8) | (value & 0xFF) << 24;
+    }
+
+    /**
+     * @return #RGBA as #RRGGBBAA, each digit repeated.
+     */
+    private static long expandShortHex(long value) {
+        long expanded = 0;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            expanded = (expanded << 8) | ((value >> shift) & 0xF) * 0x11;
+        }
+        return expanded;
+    }
+
+    private static long parseFunction(CharSequence s, int start, int open, int end) {
+        int nameEnd = open;
+        while (nameEnd > start && NumberScanner.isWhitespace(s.charAt(nameEnd - 1))) {
+            nameEnd--;
+        }
+        boolean hsl;
+        if (StyleParser.regionEquals(s, start, nameEnd, "rgb")
+                || StyleParser.regionEquals(s, start, nameEnd, "rgba")) {
+            hsl = false;
+        } else if (StyleParser.regionEquals(s, start, nameEnd, "hsl")
+                || StyleParser.regionEquals(s, start, nameEnd, "hsla")) {
+            hsl = true;
+        } else {
+            return NO_COLOR;
+        }
+        int close = end - 1;
+        if (s.charAt(close) != ')') {
+            throw new IllegalArgumentException("Missing ')'");
+        }
+
+        float[] values = new float[4];
+        boolean[] percent = new boolean[4];
+        int count = 0;
+        int i = open + 1;
+        while (true) {
+            i = NumberScanner.skipSeparators(s, i, close);
+            if (i >= close) {
+                break;
+            }
+            if (s.charAt(i) == '/' && count == 3) {
+                // The alpha of the space separated syntax.
+                i++;
+                continue;
+            }
+            int numberEnd = NumberScanner.numberEnd(s, i, close);
+            if (numberEnd == i || count == 4) {
+                throw new IllegalArgumentException("Invalid color arguments");
+            }
+            float value = FloatParser.parseFloat(s, i, numberEnd);
+            int unitEnd = numberEnd;
+            while (unitEnd < close && Character.isLetter(s.charAt(unitEnd))) {
+                unitEnd++;
+            }
+            if (numberEnd < close && s.charAt(numberEnd) == '%') {
+                percent[count] = true;
+                unitEnd = numberEnd + 1;
+            } else if (unitEnd > numberEnd) {
+                if (!hsl || count != 0) {
+                    throw new IllegalArgumentException("Invalid color arguments");
+                }
+                value = toDegrees(value, s, numberEnd, unitEnd);
+            }
+            values[count++] = value;
+            i = unitEnd;
+        }
+        if (count < 3) {
+            throw new IllegalArgumentException("Invalid color arguments");
+        }
+
+        float alpha = count == 4 ? fraction(values[3], percent[3] ? 100 : 1) : 1;
+        int rgb;
+        if (hsl) {
+            rgb = hslToRgb(values[0], fraction(values[1], 100), fraction(values[2], 100));
+        } else {
+            rgb = 0;
+            for (int k = 0; k < 3; k++) {
+                float channel = percent[k] ? values[k] * 255 / 100 : values[k];
+                rgb = rgb << 8 | Math.round(Math.max(0, Math.min(255, channel)));
+            }
+        }
+        return ((long) Math.round(alpha * 255) << 24 | rgb) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return the value divided by the scale, clamped to [0, 1]
+     */
+    private static float fraction(float value, float scale) {
+        return Math.max(0, Math.min(1, value / scale));
+    }
+
+    private static float toDegrees(float value, CharSequence s, int start, int end) {
+        if (StyleParser.regionEquals(s, start, end, "deg")) {
+            return value;
+        } else if (StyleParser.regionEquals(s, start, end, "rad")) {
+            return (float) Math.toDegrees(value);
+        } else if (StyleParser.regionEquals(s, start, end, "grad")) {
+            return value * 0.9f;
+        } else if (StyleParser.regionEquals(s, start, end, "turn")) {
+            return value * 360;
+        }
+        throw new IllegalArgumentException("Invalid angle unit");
+    }
+
+    /**
+     * The conversion from the CSS Color specification.
+     */
+    private static int hslToRgb(float hue, float saturation, float lightness) {
+        float h = (((hue % 360) + 360) % 360) / 360;
+        float t2 = lightness <= 0.5f ? lightness * (saturation + 1)
+                : lightness + saturation - lightness * saturation;
+        float t1 = lightness * 2 - t2;
+        int r = Math.round(hueToChannel(t1, t2, h + 1f / 3) * 255);
+        int g = Math.round(hueToChannel(t1, t2, h) * 255);
+        int b = Math.round(hueToChannel(t1, t2, h - 1f / 3) * 255);
+        return r << 16 | g << 8 | b;
+    }
+
+    private static float hueToChannel(float t1, float t2, float h) {
+        if (h < 0) {
+            h += 1;
+        } else if (h > 1) {
+            h -= 1;
+        }
+        if (h * 6 < 1) {
+            return t1 + (t2 - t1) * h * 6;
+        }
+        if (h * 2 < 1) {
+            return t2;
+        }
+        if (h * 3 < 2) {
+            return t1 + (t2 - t1) * (2f / 3 - h) * 6;
+        }
+        return t1;
+    }
+
+    private static int indexOf(CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int slot(CharSequence s, int start, int end) {
+        int bucket = hash(s, start, end, 0) & (SEEDS.length - 1);
+        return hash(s, start, end, SEEDS[bucket]) & (SLOTS.length - 1);
+    }
+
+    /**
+     * FNV-1a of the lower case characters, starting from the seed.
+     */
+    private static int hash(CharSequence s, int start, int end, int seed) {
+        int x = seed;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            x = (x ^ c) * 0x01000193;
+        }
+        return x ^ (x >>> 15);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Appends floats in plain decimal notation, with the fewest fraction digits
+ * which still parse back to the same float, or rounded to a given precision.
+ * Integers are written without a fraction, so 17.0 becomes "17" and 0.1f
+ * becomes "0.1".
+ * <p>
+ * The digits are written straight into the StringBuilder, without creating a
+ * String per number.
+ */
+final class FloatFormatter {
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L,
+            1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+            100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L,
+            1000000000000000000L
+    };
+    // The largest magnitude written without an exponent.
+    private static final float MAX_PLAIN = 1e15f;
+    // Also bounded by the powers of ten FloatParser can use.
+    private static final int MAX_FRACTION_DIGITS = 22;
+    private static final double MAX_EXACT_MANTISSA = 1L << 53;
+
+    private FloatFormatter() {
+    }
+
+    public static StringBuilder append(StringBuilder sb, float value) {
+        return append(sb, value, OutputOptions.FULL_PRECISION, false);
+    }
+
+    /**
+     * @param maxFractionDigits round to this many fraction digits, or
+     *                          {@link OutputOptions#FULL_PRECISION} to keep the exact float
+     * @param stripLeadingZero write "0.5" as ".5"
+     */
+    public static StringBuilder append(StringBuilder sb, float value, int maxFractionDigits,
+                                       boolean stripLeadingZero) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return sb.append(value);
+        }
+        float abs = Math.abs(value);
+        if (abs < MAX_PLAIN && value == (long) value) {
+            // Also writes -0 as "0".
+            return appendDigits(sb, (long) value, 0, false);
+        }
+        if (abs < MAX_PLAIN) {
+            int limit = maxFractionDigits == OutputOptions.FULL_PRECISION
+                    ? MAX_FRACTION_DIGITS : Math.min(maxFractionDigits, MAX_FRACTION_DIGITS);
+            for (int digits = 1; digits <= limit; digits++) {
+                double scaled = abs * FloatParser.POWERS_OF_TEN[digits];
+                if (scaled >= MAX_EXACT_MANTISSA) {
+                    break;
+                }
+                // The two candidates with this many digits, nearest one first.
+                long low = (long) scaled;
+                long high = low + 1;
+                boolean lowFirst = scaled - low <= high - scaled;
+                long mantissa = roundTrips(lowFirst ? low : high, digits, abs);
+                if (mantissa < 0) {
+                    mantissa = roundTrips(lowFirst ? high : low, digits, abs);
+                }
+                if (mantissa >= 0) {
+                    return appendDigits(sb, value < 0 ? -mantissa : mantissa, digits, stripLeadingZero);
+                }
+            }
+            if (maxFractionDigits != OutputOptions.FULL_PRECISION) {
+                // The exact float needs more digits than allowed, so round it.
+                double scaled = abs * FloatParser.POWERS_OF_TEN[limit];
+                if (scaled < MAX_EXACT_MANTISSA) {
+                    long mantissa = Math.round(scaled);
+                    int digits = limit;
+                    while (digits > 0 && mantissa % 10 == 0) {
+                        mantissa /= 10;
+                        digits--;
+                    }
+                    return appendDigits(sb, value < 0 ? -mantissa : mantissa, digits, stripLeadingZero);
+                }
+            }
+        }
+        // Very large or very small, written with an exponent.
+        return sb.append(value);
+    }
+
+    /**
+     * @return the mantissa if mantissa * 10^-digits parses back to the value, or -1.
+     */
+    private static long roundTrips(long mantissa, int digits, float value) {
+        return mantissa != 0 && FloatParser.fastPath(mantissa, -digits) == value ? mantissa : -1;
+    }
+
+    /**
+     * Append the number mantissa * 10^-fractionDigits.
+     */
+    private static StringBuilder appendDigits(StringBuilder sb, long mantissa, int fractionDigits,
+                                              boolean stripLeadingZero) {
+        if (mantissa < 0) {
+            sb.append('-');
+            mantissa = -mantissa;
+        }
+        int digits = 1;
+        while (digits < LONG_POWERS_OF_TEN.length && mantissa >= LONG_POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        if (digits <= fractionDigits) {
+            if (!stripLeadingZero) {
+                sb.append('0');
+            }
+            sb.append('.');
+            for (int i = digits; i < fractionDigits; i++) {
+                sb.append('0');
+            }
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            if (i == fractionDigits - 1 && digits > fractionDigits) {
+                sb.append('.');
+            }
+            sb.append((char) ('0' + (mantissa / LONG_POWERS_OF_TEN[i]) % 10));
+        }
+        return sb;
+    }
+}
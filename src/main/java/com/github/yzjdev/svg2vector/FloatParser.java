@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Parses SVG numbers straight from a CharSequence, without creating a
+ * String. The result is always the same as {@link Float#parseFloat}.
+ * <p>
+ * Most numbers in SVG files have few digits and a small exponent. Those are
+ * converted exactly with one double multiplication or division, as in
+ * Clinger's fast path, and then rounded to float. Everything else, and
+ * anything which isn't a plain SVG number, goes to {@link Float#parseFloat}.
+ */
+final class FloatParser {
+    // 10^0 to 10^22 are exact in double.
+    static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Doubles hold any integer below 2^53 exactly.
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXPONENT = 9999;
+
+    private FloatParser() {
+    }
+
+    public static float parseFloat(CharSequence s) {
+        return parseFloat(s, 0, s.length());
+    }
+
+    /**
+     * Parse the number in the region [start, end) of the sequence.
+     *
+     * @throws NumberFormatException if the region isn't a number
+     */
+    public static float parseFloat(CharSequence s, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        // Power of ten to apply to the mantissa.
+        int exponent = 0;
+        boolean anyDigit = false;
+        char c = 0;
+        for (; i < end; i++) {
+            c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            anyDigit = true;
+            if (mantissa != 0 || c != '0') {
+                if (++digits > MAX_MANTISSA_DIGITS) {
+                    return slowParse(s, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            }
+        }
+        if (i < end && c == '.') {
+            for (i++; i < end; i++) {
+                c = s.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                anyDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > MAX_MANTISSA_DIGITS) {
+                        return slowParse(s, start, end);
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                exponent--;
+            }
+        }
+        if (!anyDigit) {
+            return slowParse(s, start, end);
+        }
+        if (i < end && (c == 'e' || c == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negativeExponent = s.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                return slowParse(s, start, end);
+            }
+            int value = 0;
+            for (; i < end; i++) {
+                c = s.charAt(i);
+                if (c < '0' || c > '9') {
+                    return slowParse(s, start, end);
+                }
+                value = Math.min(value * 10 + (c - '0'), MAX_EXPONENT);
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (i != end) {
+            return slowParse(s, start, end);
+        }
+
+        if (mantissa == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        float result = fastPath(mantissa, exponent);
+        if (Float.isNaN(result)) {
+            return slowParse(s, start, end);
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Convert mantissa * 10^exponent to the nearest float, when it can be done
+     * exactly with doubles.
+     *
+     * @param mantissa a positive integer
+     * @return the float, or NaN if the fast path doesn't apply
+     */
+    static float fastPath(long mantissa, int exponent) {
+        if (mantissa >= MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return Float.NaN;
+        }
+        // Both operands are exact, so this is the correctly rounded double.
+        double value = exponent >= 0
+                ? mantissa * POWERS_OF_TEN[exponent]
+                : mantissa / POWERS_OF_TEN[-exponent];
+        float result = (float) value;
+        // Rounding twice, to double then to float, is only wrong when the double
+        // landed exactly halfway between two floats.
+        if (value != result) {
+            float other = value > result ? Math.nextUp(result) : Math.nextDown(result);
+            if (Float.isInfinite(result) || value == ((double) result + other) / 2) {
+                return Float.NaN;
+            }
+        }
+        return result;
+    }
+
+    private static float slowParse(CharSequence s, int start, int end) {
+        return Float.parseFloat(s.subSequence(start, end).toString());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Scanner for the SVG number lists, as found in "points", "viewBox",
+ * "transform" and the path data. It follows the SVG grammar: numbers are
+ * separated by whitespace and/or a comma, or by nothing at all when the next
+ * number starts with a sign or a second '.', like "1-2" or "0.5.5". The
+ * exponent sign is part of the number, as in "1e-5".
+ * <p>
+ * The numbers are parsed in place by {@link FloatParser} and written into a
+ * buffer supplied by the caller, so scanning allocates nothing.
+ */
+final class NumberScanner {
+    private NumberScanner() {
+    }
+
+    /**
+     * Scan all the numbers in the region [start, end) of the sequence.
+     *
+     * @param out receives the numbers; a list never has more numbers than characters,
+     *            so a buffer of {@code end - start} floats is always enough
+     * @return the number of floats written
+     * @throws NumberFormatException if the region contains anything besides numbers and separators
+     */
+    static int scan(CharSequence s, int start, int end, float[] out) {
+        int count = 0;
+        int i = skipSeparators(s, start, end);
+        while (i < end) {
+            int numberEnd = numberEnd(s, i, end);
+            if (numberEnd == i) {
+                throw new NumberFormatException("Unexpected '" + s.charAt(i) + "' in \""
+                        + s.subSequence(start, end) + "\"");
+            }
+            out[count++] = FloatParser.parseFloat(s, i, numberEnd);
+            i = skipSeparators(s, numberEnd, end);
+        }
+        return count;
+    }
+
+    /**
+     * @return the end of the number starting at {@code start}, or {@code start}
+     *         if there is no number there.
+     */
+    static int numberEnd(CharSequence s, int start, int end) {
+        int i = start;
+        if (i < end && isSign(s.charAt(i))) {
+            i++;
+        }
+        int integerStart = i;
+        i = skipDigits(s, i, end);
+        boolean hasDigits = i > integerStart;
+        if (i < end && s.charAt(i) == '.') {
+            int fractionStart = i + 1;
+            i = skipDigits(s, fractionStart, end);
+            hasDigits |= i > fractionStart;
+        }
+        if (!hasDigits) {
+            return start;
+        }
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < end && isSign(s.charAt(exponent))) {
+                exponent++;
+            }
+            int exponentEnd = skipDigits(s, exponent, end);
+            // An 'e' without digits isn't part of the number.
+            if (exponentEnd > exponent) {
+                i = exponentEnd;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return the position after any whitespace and commas.
+     */
+    static int skipSeparators(CharSequence s, int start, int end) {
+        while (start < end) {
+            char c = s.charAt(start);
+            if (c != ',' && !isWhitespace(c)) {
+                break;
+            }
+            start++;
+        }
+        return start;
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isSign(char c) {
+        return c == '-' || c == '+';
+    }
+
+    private static int skipDigits(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) >= '0' && s.charAt(start) <= '9') {
+            start++;
+        }
+        return start;
+    }
+}
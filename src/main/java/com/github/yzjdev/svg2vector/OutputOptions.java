@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Settings for how the VectorDrawable is written. The defaults reproduce the
+ * converter's usual output; every option trades some of it for smaller or
+ * faster drawables.
+ * <p>
+ * The options belong to a {@link ConverterContext}, and apply to all the
+ * conversions done with it.
+ */
+public final class OutputOptions {
+    /**
+     * Value for the precision which writes every coordinate with as many
+     * digits as needed to read back the exact same float.
+     */
+    public static final int FULL_PRECISION = -1;
+
+    private int mPrecision = FULL_PRECISION;
+    private boolean mCompactPathData;
+    private boolean mOptimizePathCommands;
+    private float mSimplifyTolerance;
+    private float mArcTolerance;
+    private boolean mMinifyXml;
+    private boolean mBinaryXml;
+
+    /**
+     * Round the path coordinates to the given number of fraction digits, in
+     * viewport units. Trailing zeros are never written.
+     *
+     * @param precision the number of fraction digits, or {@link #FULL_PRECISION}
+     */
+    public void setPrecision(int precision) {
+        if (precision < 0 && precision != FULL_PRECISION) {
+            throw new IllegalArgumentException("Invalid precision " + precision);
+        }
+        mPrecision = precision;
+    }
+
+    public int getPrecision() {
+        return mPrecision;
+    }
+
+    /**
+     * Write the path data with as few characters as possible: no leading
+     * zeros, no separator before a '-' or a '.' which can't be misread, and
+     * no command letter when the previous segment has the same command.
+     * A lineto following a moveto keeps its letter, and arc flags keep their
+     * separators, since older versions of Android can't read them otherwise.
+     */
+    public void setCompactPathData(boolean compact) {
+        mCompactPathData = compact;
+    }
+
+    public boolean isCompactPathData() {
+        return mCompactPathData;
+    }
+
+    /**
+     * Write every path segment in its shortest form, absolute or relative,
+     * using the H, V, S and T shorthands where they describe the same
+     * segment at the chosen precision.
+     */
+    public void setOptimizePathCommands(boolean optimize) {
+        mOptimizePathCommands = optimize;
+    }
+
+    public boolean isOptimizePathCommands() {
+        return mOptimizePathCommands;
+    }
+
+    /**
+     * Simplify the paths: drop the points of line runs and flatten the curves
+     * as long as the shape doesn't move by more than the tolerance, and drop
+     * the segments shorter than it.
+     *
+     * @param tolerance the largest error allowed, in viewport units, or 0 to
+     *                  write the paths as they are
+     */
+    public void setSimplifyTolerance(float tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Invalid tolerance " + tolerance);
+        }
+        mSimplifyTolerance = tolerance;
+    }
+
+    public float getSimplifyTolerance() {
+        return mSimplifyTolerance;
+    }
+
+    /**
+     * Replace the arcs with cubic curves, so drawing the path needs no
+     * trigonometry at runtime. The arcs are split into as many curves as the
+     * tolerance needs, and at least one per quarter turn.
+     *
+     * @param tolerance the largest distance allowed between the curves and
+     *                  the arc, in viewport units, or 0 to keep the arcs
+     */
+    public void setArcTolerance(float tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Invalid tolerance " + tolerance);
+        }
+        mArcTolerance = tolerance;
+    }
+
+    public float getArcTolerance() {
+        return mArcTolerance;
+    }
+
+    /**
+     * Write the XML without indents or line breaks, and leave out the path
+     * attributes which have their VectorDrawable default value: a transparent
+     * fill or stroke, an alpha of 1, a stroke width of 0, and the butt cap
+     * and miter join. The path data itself is unchanged, see
+     * {@link #setCompactPathData(boolean)} for it.
+     */
+    public void setMinifyXml(boolean minify) {
+        mMinifyXml = minify;
+    }
+
+    public boolean isMinifyXml() {
+        return mMinifyXml;
+    }
+
+    /**
+     * Write the compiled binary XML, as aapt2 leaves it in the APK, instead of
+     * the text XML. The framework attributes get their resource ids and typed
+     * values, so the build doesn't have to parse the text again. The layout
+     * options of the text, like {@link #setMinifyXml(boolean)}, don't apply,
+     * but the defaults are still left out when it is set.
+     */
+    public void setBinaryXml(boolean binary) {
+        mBinaryXml = binary;
+    }
+
+    public boolean isBinaryXml() {
+        return mBinaryXml;
+    }
+
+    /**
+     * @return true if the path data is written as it was converted.
+     */
+    boolean isDefaultPathEncoding() {
+        return mPrecision == FULL_PRECISION && !mCompactPathData && !mOptimizePathCommands
+                && mSimplifyTolerance == 0 && mArcTolerance == 0;
+    }
+}
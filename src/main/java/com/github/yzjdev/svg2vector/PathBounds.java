@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Computes the exact bounds of a path from its segments: the curves are
+ * bounded by their end points and their extrema, found analytically, rather
+ * than by their control points.
+ */
+final class PathBounds implements PathVisitor {
+    // The indices in the bounds array.
+    static final int LEFT = 0;
+    static final int TOP = 1;
+    static final int RIGHT = 2;
+    static final int BOTTOM = 3;
+
+    private final PathPen mPen = new PathPen();
+    private final float[] mAbs = new float[7];
+    private final double[] mCenter = new double[7];
+    private float mLeft = Float.POSITIVE_INFINITY;
+    private float mTop = Float.POSITIVE_INFINITY;
+    private float mRight = Float.NEGATIVE_INFINITY;
+    private float mBottom = Float.NEGATIVE_INFINITY;
+
+    /**
+     * @return the bounds of the path data, as {left, top, right, bottom}, or
+     *         null if the path is empty
+     */
+    static float[] compute(PathData pathData) {
+        PathBounds bounds = new PathBounds();
+        pathData.accept(bounds);
+        return bounds.getBounds();
+    }
+
+    /**
+     * @return the bounds of the segments so far, as {left, top, right,
+     *         bottom}, or null if there is none
+     */
+    float[] getBounds() {
+        if (mLeft > mRight) {
+            return null;
+        }
+        return new float[] {mLeft, mTop, mRight, mBottom};
+    }
+
+    @Override
+    public void segment(char verb, float[] in, int k) {
+        PathPen pen = mPen;
+        float[] abs = mAbs;
+        float x0 = pen.mX;
+        float y0 = pen.mY;
+        switch (pen.toAbsolute(verb, in, k, abs)) {
+            case 'M':
+            case 'L':
+                add(abs[0], abs[1]);
+                break;
+            case 'Q':
+                add(abs[2], abs[3]);
+                addQuadExtremum(x0, y0, abs[0], abs[1], abs[2], abs[3]);
+                break;
+            case 'C':
+                add(abs[4], abs[5]);
+                addCubicExtrema(x0, y0, abs);
+                break;
+            case 'A':
+                add(abs[5], abs[6]);
+                if (abs[0] != 0 && abs[1] != 0 && (x0 != abs[5] || y0 != abs[6])) {
+                    addArcExtrema(x0, y0, abs);
+                }
+                break;
+        }
+        pen.update(verb, in, k);
+    }
+
+    @Override
+    public void end() {
+    }
+
+    private void add(double x, double y) {
+        mLeft = Math.min(mLeft, (float) x);
+        mTop = Math.min(mTop, (float) y);
+        mRight = Math.max(mRight, (float) x);
+        mBottom = Math.max(mBottom, (float) y);
+    }
+
+    private void addQuadExtremum(float x0, float y0, float x1, float y1, float x2, float y2) {
+        // The derivative is linear, it is 0 at t = (p0 - p1) / (p0 - 2 * p1 + p2).
+        for (int axis = 0; axis < 2; axis++) {
+            double p0 = axis == 0 ? x0 : y0;
+            double p1 = axis == 0 ? x1 : y1;
+            double p2 = axis == 0 ? x2 : y2;
+            double denominator = p0 - 2 * p1 + p2;
+            if (denominator != 0) {
+                double t = (p0 - p1) / denominator;
+                if (t > 0 && t < 1) {
+                    double u = 1 - t;
+                    add(u * u * x0 + 2 * u * t * x1 + t * t * x2,
+                            u * u * y0 + 2 * u * t * y1 + t * t * y2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the extrema of the cubic from (x0, y0) through the points c[0, 6).
+     */
+    private void addCubicExtrema(float x0, float y0, float[] c) {
+        for (int axis = 0; axis < 2; axis++) {
+            double p0 = axis == 0 ? x0 : y0;
+            double p1 = c[axis];
+            double p2 = c[2 + axis];
+            double p3 = c[4 + axis];
+            // The derivative, divided by 3, is a * t^2 + b * t + c.
+            double a = -p0 + 3 * p1 - 3 * p2 + p3;
+            double b = 2 * (p0 - 2 * p1 + p2);
+            double d = p1 - p0;
+            if (a == 0) {
+                if (b != 0) {
+                    addCubicPoint(-d / b, x0, y0, c);
+                }
+                continue;
+            }
+            double discriminant = b * b - 4 * a * d;
+            if (discriminant >= 0) {
+                double root = Math.sqrt(discriminant);
+                addCubicPoint((-b + root) / (2 * a), x0, y0, c);
+                addCubicPoint((-b - root) / (2 * a), x0, y0, c);
+            }
+        }
+    }
+
+    private void addCubicPoint(double t, float x0, float y0, float[] c) {
+        if (t > 0 && t < 1) {
+            double u = 1 - t;
+            double w0 = u * u * u;
+            double w1 = 3 * u * u * t;
+            double w2 = 3 * u * t * t;
+            double w3 = t * t * t;
+            add(w0 * x0 + w1 * c[0] + w2 * c[2] + w3 * c[4],
+                    w0 * y0 + w1 * c[1] + w2 * c[3] + w3 * c[5]);
+        }
+    }
+
+    /**
+     * Add the points of the arc's ellipse where the tangent is horizontal or
+     * vertical, if the arc goes through them.
+     */
+    private void addArcExtrema(float x0, float y0, float[] a) {
+        double[] center = mCenter;
+        ArcConverter.toCenter(x0, y0, a[0], a[1], a[2], a[3] != 0, a[4] != 0, a[5], a[6], center);
+        double cx = center[ArcConverter.CENTER_X];
+        double cy = center[ArcConverter.CENTER_Y];
+        double rx = center[ArcConverter.RADIUS_X];
+        double ry = center[ArcConverter.RADIUS_Y];
+        double cos = Math.cos(center[ArcConverter.ROTATION]);
+        double sin = Math.sin(center[ArcConverter.ROTATION]);
+        double start = Math.toRadians(center[ArcConverter.START_ANGLE]);
+        double sweep = Math.toRadians(center[ArcConverter.SWEEP_ANGLE]);
+        // x(t) = cx + rx * cos(t) * cos - ry * sin(t) * sin, and y(t) alike.
+        double xExtremum = Math.atan2(-ry * sin, rx * cos);
+        double yExtremum = Math.atan2(ry * cos, rx * sin);
+        for (int i = 0; i < 4; i++) {
+            double t = (i < 2 ? xExtremum : yExtremum) + (i % 2) * Math.PI;
+            if (isInSweep(t, start, sweep)) {
+                add(cx + rx * Math.cos(t) * cos - ry * Math.sin(t) * sin,
+                        cy + rx * Math.cos(t) * sin + ry * Math.sin(t) * cos);
+            }
+        }
+    }
+
+    private static boolean isInSweep(double t, double start, double sweep) {
+        double offset = (sweep >= 0 ? t - start : start - t) % (2 * Math.PI);
+        if (offset < 0) {
+            offset += 2 * Math.PI;
+        }
+        return offset <= Math.abs(sweep);
+    }
+}
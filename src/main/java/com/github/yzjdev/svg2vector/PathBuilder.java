@@ -21,51 +21,78 @@ import androidx.annotation.NonNull;
  * Build a string for Svg file's path data.
  */
 class PathBuilder {
-  private StringBuilder mPathData = new StringBuilder();
+  private final StringBuilder mPathData;
+
+  public PathBuilder() {
+    this(new StringBuilder());
+  }
+
+  /**
+   * Build the path data into the given, presumably reused, StringBuilder.
+   */
+  public PathBuilder(StringBuilder pathData) {
+    mPathData = pathData;
+  }
+
+  private void appendPoint(float x, float y) {
+    FloatFormatter.append(mPathData, x).append(',');
+    FloatFormatter.append(mPathData, y);
+  }
 
   private String booleanToString(boolean flag) {
     return flag ? "1" : "0";
   }
 
   public PathBuilder absoluteMoveTo(float x, float y) {
-    mPathData.append("M"+ x + "," + y);
+    mPathData.append('M');
+    appendPoint(x, y);
     return this;
   }
 
   public PathBuilder relativeMoveTo(float x, float y) {
-    mPathData.append("m"+ x + "," + y);
+    mPathData.append('m');
+    appendPoint(x, y);
     return this;
   }
 
   public PathBuilder absoluteLineTo(float x, float y) {
-    mPathData.append("L"+ x + "," + y);
+    mPathData.append('L');
+    appendPoint(x, y);
     return this;
   }
 
   public PathBuilder relativeLineTo(float x, float y) {
-    mPathData.append("l"+ x + "," + y);
+    mPathData.append('l');
+    appendPoint(x, y);
     return this;
   }
 
   public PathBuilder relativeVerticalTo(float v) {
-    mPathData.append("v"+ v);
+    mPathData.append('v');
+    FloatFormatter.append(mPathData, v);
     return this;
   }
 
   public PathBuilder relativeHorizontalTo(float h) {
-    mPathData.append("h"+ h);
+    mPathData.append('h');
+    FloatFormatter.append(mPathData, h);
     return this;
   }
 
   public PathBuilder relativeArcTo(float rx, float ry, boolean rotation,
                                    boolean largeArc, boolean sweep, float x, float y) {
-    mPathData.append("a"+ rx + "," + ry + "," + booleanToString(rotation) + "," +
-                     booleanToString(largeArc) + "," + booleanToString(sweep) + "," + x + "," + y );
+    mPathData.append('a');
+    appendPoint(rx, ry);
+    mPathData.append(',')
+             .append(booleanToString(rotation)).append(',')
+             .append(booleanToString(largeArc)).append(',')
+             .append(booleanToString(sweep)).append(',');
+    appendPoint(x, y);
     return this;
   }
 
   public PathBuilder relativeClose() {
-    mPathData.append("z");
+    mPathData.append('z');
     return this;
   }
 
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Path stage which rewrites each segment in whichever form is the shortest
+ * once written: absolute or relative, and the H/V/S/T shorthands where the
+ * geometry allows them.
+ * <p>
+ * Relative coordinates are computed from the current point as the reader
+ * will decode it, after the rounding to the output precision. So the
+ * rounding errors don't add up along the path.
+ */
+final class PathCommandOptimizer implements PathVisitor {
+    private final PathVisitor mNext;
+    private final int mPrecision;
+    private final boolean mCompact;
+    // Half a unit of the last written digit, or 0 at full precision.
+    private final float mTolerance;
+    // The geometry of the input, and the reader's view of the output.
+    private final PathPen mInput = new PathPen();
+    private final PathPen mOutput = new PathPen();
+    private final StringBuilder mScratch = new StringBuilder();
+    // The segment being built, in absolute coordinates.
+    private final float[] mAbs = new float[7];
+
+    // The best candidate so far, and its values as the reader decodes them.
+    private char mBestVerb;
+    private int mBestCost;
+    private final float[] mBest = new float[7];
+    private final float[] mBestDecoded = new float[7];
+    private final float[] mCandidate = new float[7];
+    private final float[] mDecoded = new float[7];
+
+    PathCommandOptimizer(OutputOptions options, PathVisitor next) {
+        mNext = next;
+        mPrecision = options.getPrecision();
+        mCompact = options.isCompactPathData();
+        mTolerance = mPrecision == OutputOptions.FULL_PRECISION
+                ? 0 : (float) (0.5 / FloatParser.POWERS_OF_TEN[Math.min(mPrecision, 22)]);
+    }
+
+    @Override
+    public void segment(char verb, float[] in, int k) {
+        PathPen out = mOutput;
+        float[] abs = mAbs;
+        mBestVerb = 0;
+        switch (mInput.toAbsolute(verb, in, k, abs)) {
+            case 'Z':
+                candidate('z', 0);
+                break;
+            case 'M':
+                endpointCandidates('M', 0, 2);
+                break;
+            case 'L':
+                endpointCandidates('L', 0, 2);
+                if (matches(abs[1], out.mY)) {
+                    mCandidate[0] = abs[0];
+                    candidate('H', 1);
+                    mCandidate[0] = abs[0] - out.mX;
+                    candidate('h', 1);
+                }
+                if (matches(abs[0], out.mX)) {
+                    mCandidate[0] = abs[1];
+                    candidate('V', 1);
+                    mCandidate[0] = abs[1] - out.mY;
+                    candidate('v', 1);
+                }
+                break;
+            case 'C':
+                endpointCandidates('C', 0, 6);
+                if (out.mKind == PathPen.CUBIC && matches(abs[0], out.reflectedX(PathPen.CUBIC))
+                        && matches(abs[1], out.reflectedY(PathPen.CUBIC))) {
+                    endpointCandidates('S', 2, 4);
+                }
+                break;
+            case 'Q':
+                endpointCandidates('Q', 0, 4);
+                if (matches(abs[0], out.reflectedX(PathPen.QUAD))
+                        && matches(abs[1], out.reflectedY(PathPen.QUAD))) {
+                    endpointCandidates('T', 2, 2);
+                }
+                break;
+            case 'A':
+                endpointCandidates('A', 0, 7);
+                break;
+        }
+        mInput.update(verb, in, k);
+        out.update(mBestVerb, mBestDecoded, 0);
+        mNext.segment(mBestVerb, mBest, 0);
+    }
+
+    /**
+     * Try the absolute and relative forms of the verb, with the values
+     * abs[from, from + count).
+     */
+    private void endpointCandidates(char verb, int from, int count) {
+        System.arraycopy(mAbs, from, mCandidate, 0, count);
+        candidate(verb, count);
+        // Only the points are relative, not the radii and flags of an arc.
+        for (int j = verb == 'A' ? 5 : 0; j < count; j += 2) {
+            mCandidate[j] = mAbs[from + j] - mOutput.mX;
+            mCandidate[j + 1] = mAbs[from + j + 1] - mOutput.mY;
+        }
+        candidate(Character.toLowerCase(verb), count);
+    }
+
+    private boolean matches(float value, float target) {
+        return Math.abs(value - target) <= mTolerance;
+    }
+
+    /**
+     * Measure the candidate in mCandidate[0, count), and keep it if it is the shortest yet.
+     */
+    private void candidate(char verb, int count) {
+        // The letter, and one separator between the numbers.
+        int cost = 1 + Math.max(count - 1, 0);
+        StringBuilder sb = mScratch;
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            FloatFormatter.append(sb, mCandidate[i], mPrecision, mCompact);
+            cost += sb.length();
+            if (mCompact && i > 0 && sb.charAt(0) == '-') {
+                cost--;
+            }
+            mDecoded[i] = FloatParser.parseFloat(sb, 0, sb.length());
+        }
+        if (mBestVerb == 0 || cost < mBestCost) {
+            mBestVerb = verb;
+            mBestCost = cost;
+            System.arraycopy(mCandidate, 0, mBest, 0, count);
+            System.arraycopy(mDecoded, 0, mBestDecoded, 0, count);
+        }
+    }
+
+    @Override
+    public void end() {
+        mNext.end();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Compact representation of path data: one verb per segment, and the
+ * coordinates of all the segments in one contiguous array.
+ * <p>
+ * A segment is one command with exactly its own arguments, so the number of
+ * coordinates of a segment is fixed by its verb, see {@link #getArity}. It is
+ * filled by {@link PathTokenizer}, and replays its segments to any
+ * {@link PathVisitor}.
+ * <p>
+ * A segment costs 1 byte for the verb plus 4 bytes per coordinate, so 9 bytes
+ * for a lineto and 25 bytes for a curveto. With one object per command, a
+ * lineto used to take about 56 bytes: the node, its float[] and the
+ * reference to it.
+ */
+final class PathData implements PathVisitor {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] mVerbs;
+    private int mVerbCount;
+    private float[] mCoords;
+    private int mCoordCount;
+
+    public PathData() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param segmentCapacity the expected number of segments
+     */
+    public PathData(int segmentCapacity) {
+        segmentCapacity = Math.max(segmentCapacity, 1);
+        mVerbs = new byte[segmentCapacity];
+        mCoords = new float[segmentCapacity * 2];
+    }
+
+    /**
+     * @return the number of coordinates of a segment of the given verb.
+     * @throws IllegalArgumentException if the verb isn't a path command
+     */
+    public static int getArity(char verb) {
+        switch (verb) {
+            case 'z':
+            case 'Z':
+                return 0;
+            case 'h':
+            case 'H':
+            case 'v':
+            case 'V':
+                return 1;
+            case 'm':
+            case 'M':
+            case 'l':
+            case 'L':
+            case 't':
+            case 'T':
+                return 2;
+            case 's':
+            case 'S':
+            case 'q':
+            case 'Q':
+                return 4;
+            case 'c':
+            case 'C':
+                return 6;
+            case 'a':
+            case 'A':
+                return 7;
+            default:
+                throw new IllegalArgumentException("Unknown path command '" + verb + "'");
+        }
+    }
+
+    public int getSegmentCount() {
+        return mVerbCount;
+    }
+
+    public char getVerb(int segment) {
+        return (char) mVerbs[segment];
+    }
+
+    /**
+     * @return the coordinates of all the segments, in order. Only the first
+     *         {@link #getCoordCount()} entries are valid.
+     */
+    public float[] getCoords() {
+        return mCoords;
+    }
+
+    public int getCoordCount() {
+        return mCoordCount;
+    }
+
+    public void clear() {
+        mVerbCount = 0;
+        mCoordCount = 0;
+    }
+
+    /**
+     * Add one segment, reading as many coordinates as the verb takes.
+     */
+    @Override
+    public void segment(char verb, float[] values, int offset) {
+        int arity = getArity(verb);
+        ensureCapacity(mVerbCount + 1, mCoordCount + arity);
+        mVerbs[mVerbCount++] = (byte) verb;
+        System.arraycopy(values, offset, mCoords, mCoordCount, arity);
+        mCoordCount += arity;
+    }
+
+    private void ensureCapacity(int verbCount, int coordCount) {
+        if (verbCount > mVerbs.length) {
+            byte[] verbs = new byte[Math.max(verbCount, mVerbs.length * 2)];
+            System.arraycopy(mVerbs, 0, verbs, 0, mVerbCount);
+            mVerbs = verbs;
+        }
+        if (coordCount > mCoords.length) {
+            float[] coords = new float[Math.max(coordCount, mCoords.length * 2)];
+            System.arraycopy(mCoords, 0, coords, 0, mCoordCount);
+            mCoords = coords;
+        }
+    }
+
+    @Override
+    public void end() {
+    }
+
+    /**
+     * Stream all the segments to the visitor.
+     */
+    public void accept(PathVisitor visitor) {
+        int k = 0;
+        for (int i = 0; i < mVerbCount; i++) {
+            char verb = (char) mVerbs[i];
+            visitor.segment(verb, mCoords, k);
+            k += getArity(verb);
+        }
+        visitor.end();
+    }
+
+    /**
+     * Apply the affine transformation to all the segments, see {@link PathTransformer}.
+     */
+    public void transform(float a, float b, float c, float d, float e, float f) {
+        PathData result = new PathData(mVerbCount);
+        accept(new PathTransformer(a, b, c, d, e, f, result));
+        mVerbs = result.mVerbs;
+        mVerbCount = result.mVerbCount;
+        mCoords = result.mCoords;
+        mCoordCount = result.mCoordCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        accept(new PathWriter(sb));
+        return sb.toString();
+    }
+}
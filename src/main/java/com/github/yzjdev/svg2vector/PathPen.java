@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * The current point of a path, and what the next segment takes from the
+ * previous one, tracked as the SVG spec defines it.
+ */
+final class PathPen {
+    static final int OTHER = 0;
+    static final int CUBIC = 1;
+    static final int QUAD = 2;
+
+    float mX;
+    float mY;
+    float mStartX;
+    float mStartY;
+    // The last control point, for the reflection of S and T.
+    float mCtrlX;
+    float mCtrlY;
+    // The kind of curve the last segment was, or OTHER.
+    int mKind = OTHER;
+
+    /**
+     * @return the implicit first control point of a smooth curve of the kind
+     */
+    float reflectedX(int kind) {
+        return mKind == kind ? 2 * mX - mCtrlX : mX;
+    }
+
+    float reflectedY(int kind) {
+        return mKind == kind ? 2 * mY - mCtrlY : mY;
+    }
+
+    /**
+     * Write the segment in absolute coordinates, with its implicit values made
+     * explicit: H and V become L, S becomes C and T becomes Q. The pen isn't
+     * moved.
+     *
+     * @return the absolute verb, one of M, L, C, Q, A or Z
+     */
+    char toAbsolute(char verb, float[] in, int k, float[] abs) {
+        char upper = Character.toUpperCase(verb);
+        float dx = upper == verb ? 0 : mX;
+        float dy = upper == verb ? 0 : mY;
+        switch (upper) {
+            case 'M':
+            case 'L':
+                abs[0] = in[k] + dx;
+                abs[1] = in[k + 1] + dy;
+                return upper;
+            case 'H':
+                abs[0] = in[k] + dx;
+                abs[1] = mY;
+                return 'L';
+            case 'V':
+                abs[0] = mX;
+                abs[1] = in[k] + dy;
+                return 'L';
+            case 'C':
+                for (int j = 0; j < 6; j += 2) {
+                    abs[j] = in[k + j] + dx;
+                    abs[j + 1] = in[k + j + 1] + dy;
+                }
+                return 'C';
+            case 'S':
+                abs[0] = reflectedX(CUBIC);
+                abs[1] = reflectedY(CUBIC);
+                for (int j = 2; j < 6; j += 2) {
+                    abs[j] = in[k + j - 2] + dx;
+                    abs[j + 1] = in[k + j - 1] + dy;
+                }
+                return 'C';
+            case 'Q':
+                for (int j = 0; j < 4; j += 2) {
+                    abs[j] = in[k + j] + dx;
+                    abs[j + 1] = in[k + j + 1] + dy;
+                }
+                return 'Q';
+            case 'T':
+                abs[0] = reflectedX(QUAD);
+                abs[1] = reflectedY(QUAD);
+                abs[2] = in[k] + dx;
+                abs[3] = in[k + 1] + dy;
+                return 'Q';
+            case 'A':
+                System.arraycopy(in, k, abs, 0, 5);
+                abs[5] = in[k + 5] + dx;
+                abs[6] = in[k + 6] + dy;
+                return 'A';
+            default:
+                return 'Z';
+        }
+    }
+
+    /**
+     * Move the pen along the segment.
+     */
+    void update(char verb, float[] v, int k) {
+        char upper = Character.toUpperCase(verb);
+        float dx = upper == verb ? 0 : mX;
+        float dy = upper == verb ? 0 : mY;
+        int kind = OTHER;
+        switch (upper) {
+            case 'Z':
+                mX = mStartX;
+                mY = mStartY;
+                break;
+            case 'M':
+                mX = v[k] + dx;
+                mY = v[k + 1] + dy;
+                mStartX = mX;
+                mStartY = mY;
+                break;
+            case 'T':
+                kind = QUAD;
+                mCtrlX = reflectedX(QUAD);
+                mCtrlY = reflectedY(QUAD);
+                mX = v[k] + dx;
+                mY = v[k + 1] + dy;
+                break;
+            case 'L':
+                mX = v[k] + dx;
+                mY = v[k + 1] + dy;
+                break;
+            case 'H':
+                mX = v[k] + dx;
+                break;
+            case 'V':
+                mY = v[k] + dy;
+                break;
+            case 'C':
+                kind = CUBIC;
+                mCtrlX = v[k + 2] + dx;
+                mCtrlY = v[k + 3] + dy;
+                mX = v[k + 4] + dx;
+                mY = v[k + 5] + dy;
+                break;
+            case 'S':
+            case 'Q':
+                kind = upper == 'S' ? CUBIC : QUAD;
+                mCtrlX = v[k] + dx;
+                mCtrlY = v[k + 1] + dy;
+                mX = v[k + 2] + dx;
+                mY = v[k + 3] + dy;
+                break;
+            case 'A':
+                mX = v[k + 5] + dx;
+                mY = v[k + 6] + dy;
+                break;
+        }
+        mKind = kind;
+    }
+}
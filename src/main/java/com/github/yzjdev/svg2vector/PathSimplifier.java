@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+import java.util.Arrays;
+
+/**
+ * Path stage which removes the detail smaller than a tolerance: runs of
+ * lines are simplified with the Ramer-Douglas-Peucker algorithm, curves
+ * and arcs flatter than the tolerance become lines, and zero length
+ * segments are dropped. Collinear lines are merged as part of the runs.
+ * <p>
+ * The segments are written in absolute coordinates, with their implicit
+ * control points made explicit, since the previous segment may change.
+ */
+final class PathSimplifier implements PathVisitor {
+    private final PathVisitor mNext;
+    private final float mTolerance;
+    private final PathPen mPen = new PathPen();
+    private final float[] mAbs = new float[7];
+    private final float[] mLine = new float[2];
+    private final double[] mCenter = new double[7];
+
+    // The pending run of lines, as x, y pairs. The first point is where the
+    // run starts, it has already been written.
+    private float[] mRun = new float[32];
+    private int mRunLength;
+    private boolean[] mKeep = new boolean[16];
+    private int[] mStack = new int[32];
+
+    /**
+     * @param tolerance the largest distance the simplified path may be off,
+     *                  in the units of the path
+     */
+    PathSimplifier(float tolerance, PathVisitor next) {
+        mTolerance = tolerance;
+        mNext = next;
+        startRun(0, 0);
+    }
+
+    @Override
+    public void segment(char verb, float[] in, int k) {
+        PathPen pen = mPen;
+        float[] abs = mAbs;
+        char absolute = pen.toAbsolute(verb, in, k, abs);
+        float x = pen.mX;
+        float y = pen.mY;
+        switch (absolute) {
+            case 'L':
+                addToRun(abs[0], abs[1]);
+                break;
+            case 'C':
+                if (isFlat(x, y, abs[4], abs[5], abs, 4)) {
+                    addToRun(abs[4], abs[5]);
+                } else {
+                    flushRun(false);
+                    mNext.segment('C', abs, 0);
+                }
+                break;
+            case 'Q':
+                if (isFlat(x, y, abs[2], abs[3], abs, 2)) {
+                    addToRun(abs[2], abs[3]);
+                } else {
+                    flushRun(false);
+                    mNext.segment('Q', abs, 0);
+                }
+                break;
+            case 'A':
+                if (abs[0] == 0 || abs[1] == 0) {
+                    // Drawn as a line, see the SVG spec.
+                    addToRun(abs[5], abs[6]);
+                } else if (x == abs[5] && y == abs[6]) {
+                    // An arc to the current point isn't drawn, see the SVG spec.
+                } else if (isFlatArc(x, y, abs)) {
+                    addToRun(abs[5], abs[6]);
+                } else {
+                    flushRun(false);
+                    mNext.segment('A', abs, 0);
+                }
+                break;
+            case 'M':
+                flushRun(false);
+                mNext.segment('M', abs, 0);
+                break;
+            default:
+                // The closing line is simplified with the rest of the run.
+                addToRun(pen.mStartX, pen.mStartY);
+                flushRun(true);
+                mNext.segment('Z', abs, 0);
+                break;
+        }
+        pen.update(verb, in, k);
+        if (mRunLength == 0) {
+            startRun(pen.mX, pen.mY);
+        }
+    }
+
+    @Override
+    public void end() {
+        flushRun(false);
+        mNext.end();
+    }
+
+    /**
+     * @return true if the control points coords[0, count) are all within the
+     *         tolerance of the line from (x0, y0) to (x1, y1). The curve is in
+     *         their convex hull, so it is too.
+     */
+    private boolean isFlat(float x0, float y0, float x1, float y1, float[] coords, int count) {
+        for (int j = 0; j < count; j += 2) {
+            if (distanceToSegment(coords[j], coords[j + 1], x0, y0, x1, y1) > mTolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the arc from (x0, y0) stays within the tolerance of its
+     *         chord. For a circle, the farthest point is r * (1 - cos(a / 2))
+     *         away, and the ellipse is bounded by the circle of its larger
+     *         radius.
+     */
+    private boolean isFlatArc(float x0, float y0, float[] arc) {
+        double[] center = mCenter;
+        ArcConverter.toCenter(x0, y0, arc[0], arc[1], arc[2], arc[3] != 0, arc[4] != 0,
+                arc[5], arc[6], center);
+        double radius = Math.max(center[ArcConverter.RADIUS_X], center[ArcConverter.RADIUS_Y]);
+        double halfSweep = Math.toRadians(Math.abs(center[ArcConverter.SWEEP_ANGLE])) / 2;
+        return radius * (1 - Math.cos(halfSweep)) <= mTolerance;
+    }
+
+    private void startRun(float x, float y) {
+        mRun[0] = x;
+        mRun[1] = y;
+        mRunLength = 2;
+    }
+
+    private void addToRun(float x, float y) {
+        if (mRunLength + 2 > mRun.length) {
+            mRun = Arrays.copyOf(mRun, mRun.length * 2);
+        }
+        mRun[mRunLength++] = x;
+        mRun[mRunLength++] = y;
+    }
+
+    /**
+     * Write the simplified run of lines.
+     *
+     * @param closed true if the run ends with the line back to the start of
+     *               the subpath, which the close path draws by itself
+     */
+    private void flushRun(boolean closed) {
+        int points = mRunLength / 2;
+        if (points >= 2) {
+            simplify(points);
+            float[] run = mRun;
+            float[] out = mLine;
+            float lastX = run[0];
+            float lastY = run[1];
+            int end = closed ? points - 1 : points;
+            for (int i = 1; i < end; i++) {
+                if (!mKeep[i]) {
+                    continue;
+                }
+                float x = run[2 * i];
+                float y = run[2 * i + 1];
+                if (distance(lastX, lastY, x, y) <= mTolerance) {
+                    // Zero length, within the tolerance.
+                    continue;
+                }
+                out[0] = x;
+                out[1] = y;
+                mNext.segment('L', out, 0);
+                lastX = x;
+                lastY = y;
+            }
+        }
+        mRunLength = 0;
+    }
+
+    /**
+     * Mark the points of the run which are kept by the Ramer-Douglas-Peucker
+     * algorithm.
+     */
+    private void simplify(int points) {
+        if (mKeep.length < points) {
+            mKeep = new boolean[Math.max(points, mKeep.length * 2)];
+        }
+        boolean[] keep = mKeep;
+        Arrays.fill(keep, 0, points, false);
+        keep[0] = true;
+        keep[points - 1] = true;
+        float[] run = mRun;
+        int[] stack = mStack;
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = points - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            float x0 = run[2 * first];
+            float y0 = run[2 * first + 1];
+            float x1 = run[2 * last];
+            float y1 = run[2 * last + 1];
+            float farthest = mTolerance;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                float d = distanceToSegment(run[2 * i], run[2 * i + 1], x0, y0, x1, y1);
+                if (d > farthest) {
+                    farthest = d;
+                    index = i;
+                }
+            }
+            if (index >= 0) {
+                keep[index] = true;
+                if (top + 4 > stack.length) {
+                    mStack = stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+    }
+
+    private static float distance(float x0, float y0, float x1, float y1) {
+        return (float) Math.hypot(x1 - x0, y1 - y0);
+    }
+
+    /**
+     * @return the distance from (x, y) to the segment from (x0, y0) to (x1, y1)
+     */
+    static float distanceToSegment(float x, float y, float x0, float y0, float x1, float y1) {
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float lengthSquared = dx * dx + dy * dy;
+        float t = lengthSquared == 0 ? 0 : ((x - x0) * dx + (y - y0) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        return distance(x, y, x0 + t * dx, y0 + t * dy);
+    }
+}
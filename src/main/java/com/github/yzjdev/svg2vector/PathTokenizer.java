@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Splits SVG path data into segments and streams them to a
+ * {@link PathVisitor}. Only the arguments of the current segment are held,
+ * so the memory used doesn't depend on the length of the path.
+ * <p>
+ * Implicit repetitions become separate segments, and the pairs following a
+ * moveto become linetos, as the SVG spec defines them. The arc flags may be
+ * written without separators, like "a1,1 0 015,5".
+ */
+final class PathTokenizer {
+    private PathTokenizer() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path data is malformed
+     */
+    public static void tokenize(CharSequence s, PathVisitor visitor) {
+        int length = s.length();
+        // The longest segment is an arc, with 7 arguments.
+        float[] args = new float[7];
+        char verb = 0;
+        int arity = 0;
+        int count = 0;
+        // Whether the current command had any arguments yet.
+        boolean hasArgs = false;
+        int i = NumberScanner.skipSeparators(s, 0, length);
+        while (i < length) {
+            char c = s.charAt(i);
+            if (isCommand(c)) {
+                checkComplete(verb, count, arity, hasArgs);
+                verb = c;
+                arity = PathData.getArity(verb);
+                count = 0;
+                hasArgs = false;
+                if (arity == 0) {
+                    visitor.segment(verb, args, 0);
+                }
+                i = NumberScanner.skipSeparators(s, i + 1, length);
+                continue;
+            }
+            if (arity == 0) {
+                throw new IllegalArgumentException(verb == 0
+                        ? "Path data doesn't start with a command"
+                        : "Unexpected number after '" + verb + "'");
+            }
+            int end;
+            if (isArcFlag(verb, count) && (c == '0' || c == '1')) {
+                end = i + 1;
+                args[count] = c - '0';
+            } else {
+                end = NumberScanner.numberEnd(s, i, length);
+                if (end == i) {
+                    throw new IllegalArgumentException("Unexpected '" + c + "' in path data");
+                }
+                args[count] = FloatParser.parseFloat(s, i, end);
+            }
+            hasArgs = true;
+            if (++count == arity) {
+                visitor.segment(verb, args, 0);
+                count = 0;
+                if (verb == 'M') {
+                    verb = 'L';
+                } else if (verb == 'm') {
+                    verb = 'l';
+                }
+            }
+            i = NumberScanner.skipSeparators(s, end, length);
+        }
+        checkComplete(verb, count, arity, hasArgs);
+        visitor.end();
+    }
+
+    private static boolean isCommand(char c) {
+        // 'e' and 'E' are exponents, never commands.
+        return ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) && c != 'e' && c != 'E';
+    }
+
+    private static boolean isArcFlag(char verb, int index) {
+        return (verb == 'a' || verb == 'A') && (index == 3 || index == 4);
+    }
+
+    private static void checkComplete(char verb, int count, int arity, boolean hasArgs) {
+        if (count != 0 || (arity != 0 && !hasArgs)) {
+            throw new IllegalArgumentException("Command '" + verb + "' has the wrong number of arguments");
+        }
+    }
+}
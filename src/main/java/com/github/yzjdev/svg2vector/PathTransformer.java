@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Path stage which applies an affine transformation to every segment.
+ * Horizontal and vertical lines become plain lines, since they may not stay
+ * horizontal or vertical.
+ */
+final class PathTransformer implements PathVisitor {
+    private final float mA, mB, mC, mD, mE, mF;
+    // The rotation added to the arcs' x-axis, in degrees.
+    private final double mArcRotation;
+    private final PathVisitor mNext;
+    private final float[] mOut = new float[7];
+    // The current point, before the transformation.
+    private final PathPen mPen = new PathPen();
+
+    /**
+     * The point (x, y) is transformed to (a * x + c * y + e, b * x + d * y + f).
+     */
+    PathTransformer(float a, float b, float c, float d, float e, float f, PathVisitor next) {
+        mA = a;
+        mB = b;
+        mC = c;
+        mD = d;
+        mE = e;
+        mF = f;
+        mArcRotation = Math.atan2(b, d);
+        mNext = next;
+    }
+
+    @Override
+    public void segment(char verb, float[] in, int k) {
+        float[] out = mOut;
+        char written = verb;
+        switch (verb) {
+            case 'z':
+            case 'Z':
+                break;
+            case 'M':
+            case 'L':
+            case 'T':
+                transformPoint(in[k], in[k + 1], out, 0, true);
+                break;
+            case 'm':
+            case 'l':
+            case 't':
+                transformPoint(in[k], in[k + 1], out, 0, false);
+                break;
+            case 'h':
+                written = 'l';
+                transformPoint(in[k], 0, out, 0, false);
+                break;
+            case 'H':
+                written = 'L';
+                transformPoint(in[k], mPen.mY, out, 0, true);
+                break;
+            case 'v':
+                written = 'l';
+                transformPoint(0, in[k], out, 0, false);
+                break;
+            case 'V':
+                written = 'L';
+                transformPoint(mPen.mX, in[k], out, 0, true);
+                break;
+            case 'C':
+            case 'S':
+            case 'Q':
+            case 'c':
+            case 's':
+            case 'q':
+                boolean absolute = Character.isUpperCase(verb);
+                int arity = PathData.getArity(verb);
+                for (int j = 0; j < arity; j += 2) {
+                    transformPoint(in[k + j], in[k + j + 1], out, j, absolute);
+                }
+                break;
+            case 'a':
+            case 'A':
+                absolute = verb == 'A';
+                transformPoint(in[k], in[k + 1], out, 0, absolute);
+                out[2] = (float) Math.toDegrees(Math.toRadians(in[k + 2]) + mArcRotation);
+                out[3] = in[k + 3];
+                out[4] = in[k + 4];
+                transformPoint(in[k + 5], in[k + 6], out, 5, absolute);
+                break;
+        }
+        mPen.update(verb, in, k);
+        mNext.segment(written, out, 0);
+    }
+
+    /**
+     * @param translate false for relative coordinates, which are only scaled and rotated
+     */
+    private void transformPoint(float x, float y, float[] out, int offset, boolean translate) {
+        out[offset] = x * mA + y * mC + (translate ? mE : 0);
+        out[offset + 1] = x * mB + y * mD + (translate ? mF : 0);
+    }
+
+    @Override
+    public void end() {
+        mNext.end();
+    }
+}
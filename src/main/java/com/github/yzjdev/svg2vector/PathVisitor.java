@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Receives the segments of a path, one at a time, as they stream from
+ * {@link PathTokenizer} through the transformation stages to a writer.
+ * <p>
+ * A segment is one command with exactly its own arguments, see
+ * {@link PathData#getArity}. Implementations must not keep the coordinates
+ * array, which the caller reuses for the next segment.
+ */
+interface PathVisitor {
+    /**
+     * @param verb the SVG command letter
+     * @param coords the arguments of the segment, from {@code offset}
+     */
+    void segment(char verb, float[] coords, int offset);
+
+    /**
+     * Called after the last segment, to flush anything still buffered.
+     */
+    void end();
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Last path stage, which appends the segments in the SVG path syntax.
+ */
+final class PathWriter implements PathVisitor {
+    private final StringBuilder mOut;
+    private final int mPrecision;
+    private final boolean mCompact;
+    // Compact mode: the previous segment's verb, and whether its last number
+    // would absorb a following '.'.
+    private char mLastVerb;
+    private boolean mLastHasDot;
+
+    PathWriter(StringBuilder out) {
+        mOut = out;
+        mPrecision = OutputOptions.FULL_PRECISION;
+        mCompact = false;
+    }
+
+    PathWriter(StringBuilder out, OutputOptions options) {
+        mOut = out;
+        mPrecision = options.getPrecision();
+        mCompact = options.isCompactPathData();
+    }
+
+    @Override
+    public void segment(char verb, float[] coords, int offset) {
+        if (mCompact) {
+            compactSegment(verb, coords, offset);
+            return;
+        }
+        StringBuilder sb = mOut;
+        sb.append(verb);
+        int arity = PathData.getArity(verb);
+        for (int j = 0; j < arity; j++) {
+            if (j > 0) {
+                sb.append(((j & 1) == 1) ? ',' : ' ');
+            }
+            FloatFormatter.append(sb, coords[offset + j], mPrecision, false);
+        }
+    }
+
+    private void compactSegment(char verb, float[] coords, int offset) {
+        StringBuilder sb = mOut;
+        int arity = PathData.getArity(verb);
+        // A repeated moveto would be read as a lineto, so it keeps its letter.
+        boolean implicit = verb == mLastVerb && arity > 0 && verb != 'M' && verb != 'm';
+        if (!implicit) {
+            sb.append(verb);
+        }
+        for (int j = 0; j < arity; j++) {
+            boolean needsSeparator = j > 0 || implicit;
+            int start = sb.length();
+            if (needsSeparator) {
+                sb.append(',');
+            }
+            FloatFormatter.append(sb, coords[offset + j], mPrecision, true);
+            int numberStart = needsSeparator ? start + 1 : start;
+            char first = sb.charAt(numberStart);
+            if (needsSeparator && (first == '-' || (first == '.' && mLastHasDot))) {
+                sb.deleteCharAt(start);
+                numberStart--;
+            }
+            mLastHasDot = hasDotWithoutExponent(sb, numberStart);
+        }
+        mLastVerb = verb;
+    }
+
+    private static boolean hasDotWithoutExponent(StringBuilder sb, int start) {
+        boolean dot = false;
+        for (int i = start; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+            if (c == 'E') {
+                return false;
+            }
+            dot |= c == '.';
+        }
+        return dot;
+    }
+
+    @Override
+    public void end() {
+    }
+}
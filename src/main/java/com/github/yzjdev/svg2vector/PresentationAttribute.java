@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * The SVG presentation attributes which are converted, with the
+ * VectorDrawable attribute each one maps to. The declaration order is the
+ * order the attributes are written in.
+ */
+enum PresentationAttribute {
+    FILL_COLOR(Svg2Vector.SVG_FILL_COLOR, "android:fillColor"),
+    FILL_OPACITY(Svg2Vector.SVG_FILL_OPACITY, "android:fillAlpha"),
+    // TODO: This is hacky, since we don't have a group level
+    // android:opacity. This only works when the path didn't overlap.
+    OPACITY(Svg2Vector.SVG_OPACITY, "android:fillAlpha"),
+    STROKE_COLOR(Svg2Vector.SVG_STROKE_COLOR, "android:strokeColor"),
+    STROKE_OPACITY(Svg2Vector.SVG_STROKE_OPACITY, "android:strokeAlpha"),
+    STROKE_WIDTH(Svg2Vector.SVG_STROKE_WIDTH, "android:strokeWidth"),
+    STROKE_LINECAP(Svg2Vector.SVG_STROKE_LINECAP, "android:strokeLinecap"),
+    STROKE_LINEJOIN(Svg2Vector.SVG_STROKE_LINEJOINE, "android:strokeLinejoin"),
+    CLIP(Svg2Vector.SVG_CLIP, "android:clip"),
+    // Never written, only resolves currentColor in the fill and stroke.
+    COLOR(Svg2Vector.SVG_COLOR, null);
+
+    // In the declaration order.
+    static final PresentationAttribute[] VALUES = values();
+
+    final String mSvgName;
+    final String mVdName;
+
+    PresentationAttribute(String svgName, String vdName) {
+        mSvgName = svgName;
+        mVdName = vdName;
+    }
+
+    /**
+     * @return the attribute for the SVG name, or null if it isn't converted.
+     */
+    static PresentationAttribute fromSvgName(String name) {
+        switch (name) {
+            case Svg2Vector.SVG_FILL_COLOR:
+                return FILL_COLOR;
+            case Svg2Vector.SVG_FILL_OPACITY:
+                return FILL_OPACITY;
+            case Svg2Vector.SVG_OPACITY:
+                return OPACITY;
+            case Svg2Vector.SVG_STROKE_COLOR:
+                return STROKE_COLOR;
+            case Svg2Vector.SVG_STROKE_OPACITY:
+                return STROKE_OPACITY;
+            case Svg2Vector.SVG_STROKE_WIDTH:
+                return STROKE_WIDTH;
+            case Svg2Vector.SVG_STROKE_LINECAP:
+                return STROKE_LINECAP;
+            case Svg2Vector.SVG_STROKE_LINEJOINE:
+                return STROKE_LINEJOIN;
+            case Svg2Vector.SVG_CLIP:
+                return CLIP;
+            case Svg2Vector.SVG_COLOR:
+                return COLOR;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Same as {@link #fromSvgName(String)}, for the region [start, end) of the
+     * sequence, ignoring case and without creating a String.
+     */
+    static PresentationAttribute fromSvgName(CharSequence s, int start, int end) {
+        for (PresentationAttribute attribute : VALUES) {
+            if (StyleParser.regionEquals(s, start, end, attribute.mSvgName)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+}
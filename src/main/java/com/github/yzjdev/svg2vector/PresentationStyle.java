@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+import java.io.IOException;
+
+/**
+ * The presentation attributes of one path. The SVG values are resolved into
+ * typed values when they are set, so writing them out is a plain field dump.
+ */
+final class PresentationStyle {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    enum LineCap {
+        BUTT("butt"),
+        ROUND("round"),
+        SQUARE("square");
+
+        final String mName;
+
+        LineCap(String name) {
+            mName = name;
+        }
+    }
+
+    enum LineJoin {
+        MITER("miter"),
+        ROUND("round"),
+        BEVEL("bevel");
+
+        final String mName;
+
+        LineJoin(String name) {
+            mName = name;
+        }
+    }
+
+    // One bit per PresentationAttribute ordinal.
+    private int mSetMask;
+
+    int mFillColor;
+    // The SVG value, for a fill we can't resolve into a color. It is written as is.
+    String mFillColorRaw;
+    // True for "currentColor", which takes mColor when the path is written.
+    boolean mFillCurrentColor;
+    int mStrokeColor;
+    String mStrokeColorRaw;
+    boolean mStrokeCurrentColor;
+    // The "color" property, only used through currentColor.
+    int mColor = 0xFF000000;
+    float mFillOpacity = 1;
+    float mOpacity = 1;
+    float mStrokeOpacity = 1;
+    float mStrokeWidth;
+    LineCap mStrokeLineCap;
+    LineJoin mStrokeLineJoin;
+    String mClip;
+
+    public boolean isSet(PresentationAttribute attribute) {
+        return (mSetMask & (1 << attribute.ordinal())) != 0;
+    }
+
+    public void copyFrom(PresentationStyle other) {
+        mSetMask = other.mSetMask;
+        mFillColor = other.mFillColor;
+        mFillColorRaw = other.mFillColorRaw;
+        mFillCurrentColor = other.mFillCurrentColor;
+        mStrokeColor = other.mStrokeColor;
+        mStrokeColorRaw = other.mStrokeColorRaw;
+        mStrokeCurrentColor = other.mStrokeCurrentColor;
+        mColor = other.mColor;
+        mFillOpacity = other.mFillOpacity;
+        mOpacity = other.mOpacity;
+        mStrokeOpacity = other.mStrokeOpacity;
+        mStrokeWidth = other.mStrokeWidth;
+        mStrokeLineCap = other.mStrokeLineCap;
+        mStrokeLineJoin = other.mStrokeLineJoin;
+        mClip = other.mClip;
+    }
+
+    /**
+     * Resolve the SVG value and store it. Values which can't be represented in
+     * VectorDrawable are dropped, and the attribute stays unset.
+     *
+     * @return false if the value was dropped.
+     */
+    public boolean set(PresentationAttribute attribute, String svgValue) {
+        return set(attribute, svgValue, 0, svgValue.length());
+    }
+
+    /**
+     * Same as {@link #set(PresentationAttribute, String)}, for the value in the
+     * region [start, end) of the sequence.
+     */
+    public boolean set(PresentationAttribute attribute, CharSequence s, int start, int end) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        try {
+            switch (attribute) {
+                case FILL_COLOR:
+                    long fill = CssColor.parse(s, start, end);
+                    mFillColor = (int) fill;
+                    mFillColorRaw = fill == CssColor.NO_COLOR ? s.subSequence(start, end).toString() : null;
+                    mFillCurrentColor = fill == CssColor.CURRENT_COLOR;
+                    break;
+                case STROKE_COLOR:
+                    long stroke = CssColor.parse(s, start, end);
+                    mStrokeColor = (int) stroke;
+                    mStrokeColorRaw = stroke == CssColor.NO_COLOR ? s.subSequence(start, end).toString() : null;
+                    mStrokeCurrentColor = stroke == CssColor.CURRENT_COLOR;
+                    break;
+                case COLOR:
+                    long color = CssColor.parse(s, start, end);
+                    if (color == CssColor.NO_COLOR) {
+                        throw new IllegalArgumentException();
+                    }
+                    // currentColor on the color property itself is the inherited value.
+                    if (color != CssColor.CURRENT_COLOR) {
+                        mColor = (int) color;
+                    }
+                    break;
+                case FILL_OPACITY:
+                    mFillOpacity = parseLength(s, start, end);
+                    break;
+                case OPACITY:
+                    mOpacity = parseLength(s, start, end);
+                    break;
+                case STROKE_OPACITY:
+                    mStrokeOpacity = parseLength(s, start, end);
+                    break;
+                case STROKE_WIDTH:
+                    mStrokeWidth = parseLength(s, start, end);
+                    break;
+                case STROKE_LINECAP:
+                    mStrokeLineCap = parseLineCap(s, start, end);
+                    break;
+                case STROKE_LINEJOIN:
+                    mStrokeLineJoin = parseLineJoin(s, start, end);
+                    break;
+                case CLIP:
+                    mClip = s.subSequence(start, end).toString();
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException.
+            return false;
+        }
+        mSetMask |= 1 << attribute.ordinal();
+        return true;
+    }
+
+    /**
+     * @return true if the fill is set to "none" or a fully transparent color.
+     */
+    public boolean isFillNone() {
+        return isSet(PresentationAttribute.FILL_COLOR) && mFillColorRaw == null && getFillColor() == 0;
+    }
+
+    /**
+     * @return true if there is no stroke, either unset or set to "none".
+     */
+    public boolean isStrokeNone() {
+        return !isSet(PresentationAttribute.STROKE_COLOR) || (mStrokeColorRaw == null && getStrokeColor() == 0);
+    }
+
+    /**
+     * @return the fill as ARGB, with currentColor resolved.
+     */
+    int getFillColor() {
+        return mFillCurrentColor ? mColor : mFillColor;
+    }
+
+    /**
+     * @return the stroke as ARGB, with currentColor resolved.
+     */
+    int getStrokeColor() {
+        return mStrokeCurrentColor ? mColor : mStrokeColor;
+    }
+
+    /**
+     * @return the fill as written, with the fill opacity and the opacity
+     *         folded into its alpha. An unset fill is black, which is the SVG
+     *         default.
+     */
+    int getWrittenFillColor() {
+        int color = isSet(PresentationAttribute.FILL_COLOR) ? getFillColor() : 0xFF000000;
+        return applyOpacity(color, mFillOpacity * mOpacity);
+    }
+
+    /**
+     * @return the stroke as written, with the stroke opacity and the opacity
+     *         folded into its alpha.
+     */
+    int getWrittenStrokeColor() {
+        return applyOpacity(getStrokeColor(), mStrokeOpacity * mOpacity);
+    }
+
+    /**
+     * Write the VectorDrawable attributes in one pass, in the canonical order
+     * of {@link PresentationAttribute}, so the output never depends on the
+     * order of the SVG attributes. The opacities are folded into the alpha of
+     * the colors. They are only written as fillAlpha and strokeAlpha for a
+     * color which is written as found, since it can't take them.
+     *
+     * @param value a buffer to format the values in
+     * @param elideDefaults true to leave out the attributes which have the
+     *                      VectorDrawable default value, or don't change
+     *                      the drawing
+     */
+    public void writeAttributes(VectorDrawableOutput writer, StringBuilder value,
+                                boolean elideDefaults) throws IOException {
+        for (PresentationAttribute attribute : PresentationAttribute.VALUES) {
+            if (elideDefaults && isDefault(attribute)) {
+                continue;
+            }
+            value.setLength(0);
+            switch (attribute) {
+                case FILL_COLOR:
+                    if (mFillColorRaw != null) {
+                        value.append(mFillColorRaw);
+                    } else {
+                        appendColor(value, getWrittenFillColor());
+                    }
+                    break;
+                case FILL_OPACITY:
+                    if (mFillColorRaw == null || !isSet(PresentationAttribute.FILL_OPACITY)
+                            && !isSet(PresentationAttribute.OPACITY)) {
+                        continue;
+                    }
+                    FloatFormatter.append(value, mFillOpacity * mOpacity);
+                    break;
+                case STROKE_OPACITY:
+                    if (mStrokeColorRaw == null || !isSet(PresentationAttribute.STROKE_OPACITY)
+                            && !isSet(PresentationAttribute.OPACITY)) {
+                        continue;
+                    }
+                    FloatFormatter.append(value, mStrokeOpacity * mOpacity);
+                    break;
+                case OPACITY:
+                    // Folded into the fill and stroke alpha.
+                    continue;
+                case COLOR:
+                    // Only used through currentColor.
+                    continue;
+                default:
+                    if (!isSet(attribute)) {
+                        continue;
+                    }
+                    appendValue(value, attribute);
+                    break;
+            }
+            writer.attribute(attribute.mVdName, value);
+        }
+    }
+
+    /**
+     * @return true if the attribute, once written, would have the
+     *         VectorDrawable default value, or if it has no effect because
+     *         there is no fill or no stroke to apply it to.
+     */
+    private boolean isDefault(PresentationAttribute attribute) {
+        boolean noFill = mFillColorRaw == null && getWrittenFillColor() >>> 24 == 0;
+        boolean noStroke = isStrokeNone() || mStrokeColorRaw == null && getWrittenStrokeColor() >>> 24 == 0;
+        switch (attribute) {
+            case FILL_COLOR:
+                return noFill;
+            case FILL_OPACITY:
+                return noFill || mFillOpacity * mOpacity == 1;
+            case STROKE_COLOR:
+                return noStroke;
+            case STROKE_OPACITY:
+                return noStroke || mStrokeOpacity * mOpacity == 1;
+            case STROKE_WIDTH:
+                return noStroke || mStrokeWidth == 0;
+            case STROKE_LINECAP:
+                return noStroke || mStrokeLineCap == LineCap.BUTT;
+            case STROKE_LINEJOIN:
+                return noStroke || mStrokeLineJoin == LineJoin.MITER;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the color with its alpha multiplied by the opacity, which is
+     *         clamped to [0, 1] as in SVG.
+     */
+    static int applyOpacity(int argb, float opacity) {
+        if (opacity >= 1) {
+            return argb;
+        }
+        int alpha = Math.round((argb >>> 24) * Math.max(0, opacity));
+        return alpha << 24 | (argb & 0xFFFFFF);
+    }
+
+    private void appendValue(StringBuilder value, PresentationAttribute attribute) {
+        switch (attribute) {
+            case STROKE_COLOR:
+                if (mStrokeColorRaw != null) {
+                    value.append(mStrokeColorRaw);
+                } else {
+                    appendColor(value, getWrittenStrokeColor());
+                }
+                break;
+            case STROKE_WIDTH:
+                FloatFormatter.append(value, mStrokeWidth);
+                break;
+            case STROKE_LINECAP:
+                value.append(mStrokeLineCap.mName);
+                break;
+            case STROKE_LINEJOIN:
+                value.append(mStrokeLineJoin.mName);
+                break;
+            case CLIP:
+                value.append(mClip);
+                break;
+            default:
+                throw new IllegalArgumentException(attribute.name());
+        }
+    }
+
+    /**
+     * Append the color as #RRGGBB when it is opaque, or #AARRGGBB otherwise.
+     */
+    static StringBuilder appendColor(StringBuilder sb, int argb) {
+        sb.append('#');
+        int shift = (argb >>> 24) == 0xFF ? 20 : 28;
+        for (; shift >= 0; shift -= 4) {
+            sb.append(HEX_DIGITS[(argb >>> shift) & 0xF]);
+        }
+        return sb;
+    }
+
+    private static float parseLength(CharSequence s, int start, int end) {
+        if (end - start > 2 && StyleParser.regionEquals(s, end - 2, end, "px")) {
+            end -= 2;
+        }
+        return FloatParser.parseFloat(s, start, end);
+    }
+
+    private static LineCap parseLineCap(CharSequence s, int start, int end) {
+        for (LineCap cap : LineCap.values()) {
+            if (StyleParser.regionEquals(s, start, end, cap.mName)) {
+                return cap;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private static LineJoin parseLineJoin(CharSequence s, int start, int end) {
+        for (LineJoin join : LineJoin.values()) {
+            if (StyleParser.regionEquals(s, start, end, join.mName)) {
+                return join;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+/**
+ * Single pass tokenizer for the inline CSS in a "style" attribute, like
+ * "fill: #fff; stroke-width: 2px !important;". The declarations are matched
+ * and resolved in place, straight into a {@link PresentationStyle}, without
+ * splitting the input into intermediate Strings.
+ */
+final class StyleParser {
+    private static final String IMPORTANT = "important";
+
+    private StyleParser() {
+    }
+
+    /**
+     * Apply the declarations of the style to the target. As in CSS, a later
+     * declaration overrides an earlier one, unless the earlier one is marked
+     * "!important".
+     *
+     * @return true if the style contains "display: none".
+     */
+    public static boolean applyStyle(CharSequence style, PresentationStyle target) {
+        boolean displayNone = false;
+        // One bit per PresentationAttribute ordinal, set once declared "!important".
+        int importantMask = 0;
+        int length = style.length();
+        int i = 0;
+        while (i < length) {
+            // Property name, up to the ':'.
+            int nameStart = skipWhitespace(style, i, length);
+            int colon = nameStart;
+            while (colon < length && style.charAt(colon) != ':' && style.charAt(colon) != ';') {
+                colon++;
+            }
+            if (colon >= length || style.charAt(colon) == ';') {
+                // Empty or malformed declaration.
+                i = colon + 1;
+                continue;
+            }
+            int nameEnd = trimEnd(style, nameStart, colon);
+
+            // Value, up to the ';' which is not inside quotes or parentheses.
+            int valueStart = skipWhitespace(style, colon + 1, length);
+            int valueEnd = findValueEnd(style, valueStart, length);
+            i = valueEnd + 1;
+            valueEnd = trimEnd(style, valueStart, valueEnd);
+
+            boolean important = false;
+            int bang = findImportant(style, valueStart, valueEnd);
+            if (bang >= 0) {
+                important = true;
+                valueEnd = trimEnd(style, valueStart, bang);
+            }
+            if (valueStart == valueEnd) {
+                continue;
+            }
+
+            PresentationAttribute attribute =
+                    PresentationAttribute.fromSvgName(style, nameStart, nameEnd);
+            if (attribute != null) {
+                int bit = 1 << attribute.ordinal();
+                if (important || (importantMask & bit) == 0) {
+                    target.set(attribute, style, valueStart, valueEnd);
+                    if (important) {
+                        importantMask |= bit;
+                    }
+                }
+            } else if (regionEquals(style, nameStart, nameEnd, Svg2Vector.SVG_DISPLAY)) {
+                displayNone = regionEquals(style, valueStart, valueEnd, "none");
+            }
+        }
+        return displayNone;
+    }
+
+    /**
+     * @return true if the region is equal to the string, ignoring case.
+     */
+    static boolean regionEquals(CharSequence s, int start, int end, String expected) {
+        int length = expected.length();
+        if (end - start != length) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            char c = s.charAt(start + k);
+            if (c != expected.charAt(k) && Character.toLowerCase(c) != expected.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static int skipWhitespace(CharSequence s, int start, int end) {
+        while (start < end && isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence s, int start, int end) {
+        while (end > start && isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int findValueEnd(CharSequence s, int start, int end) {
+        int depth = 0;
+        char quote = 0;
+        for (int k = start; k < end; k++) {
+            char c = s.charAt(k);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == ';' && depth == 0) {
+                return k;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return the position of the '!' of a trailing "!important", or -1.
+     */
+    private static int findImportant(CharSequence s, int start, int end) {
+        int wordStart = end - IMPORTANT.length();
+        if (wordStart <= start || !regionEquals(s, wordStart, end, IMPORTANT)) {
+            return -1;
+        }
+        int bang = trimEnd(s, start, wordStart) - 1;
+        return bang >= start && s.charAt(bang) == '!' ? bang : -1;
+    }
+}
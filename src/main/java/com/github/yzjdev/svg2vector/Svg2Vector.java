@@ -22,27 +22,24 @@ package com.github.yzjdev.svg2vector;
 //import com.google.common.collect.Sets;
 
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Converts SVG to VectorDrawable's XML
  */
 public class Svg2Vector {
-    private static Logger logger = Logger.getLogger(Svg2Vector.class.getSimpleName());
-
     public static final String SVG_POLYGON = "polygon";
     public static final String SVG_RECT = "rect";
     public static final String SVG_CIRCLE = "circle";
@@ -66,20 +63,18 @@ public class Svg2Vector {
     public static final String SVG_FILL_OPACITY = "fill-opacity";
     public static final String SVG_OPACITY = "opacity";
     public static final String SVG_CLIP = "clip";
+    public static final String SVG_COLOR = "color";
     public static final String SVG_POINTS = "points";
 
     public static final Map<String, String> presentationMap;
     static {
-        Map<String, String> map = new HashMap<>();
-        map.put(SVG_STROKE_COLOR, "android:strokeColor");
-        map.put(SVG_STROKE_OPACITY, "android:strokeAlpha");
-        map.put(SVG_STROKE_LINEJOINE, "android:strokeLinejoin");
-        map.put(SVG_STROKE_LINECAP, "android:strokeLinecap");
-        map.put(SVG_STROKE_WIDTH, "android:strokeWidth");
-        map.put(SVG_FILL_COLOR, "android:fillColor");
-        map.put(SVG_FILL_OPACITY, "android:fillAlpha");
-        map.put(SVG_CLIP, "android:clip");
-        map.put(SVG_OPACITY, "android:fillAlpha");
+        // Iterated in the same order as the attributes are written.
+        Map<String, String> map = new LinkedHashMap<>();
+        for (PresentationAttribute attribute : PresentationAttribute.VALUES) {
+            if (attribute.mVdName != null) {
+                map.put(attribute.mSvgName, attribute.mVdName);
+            }
+        }
         presentationMap = Collections.unmodifiableMap(map);
     }
 
@@ -107,128 +102,215 @@ public class Svg2Vector {
     );
 
 
-    private static SvgTree parse(File f) throws Exception {
-        SvgTree svgTree = new SvgTree();
-        Document doc = svgTree.parse(f);
-        NodeList nSvgNode;
+    private static SvgTree parse(File f, ConverterContext context) throws Exception {
+        SvgTree svgTree = new SvgTree(context);
+        svgTree.parse(f, new SvgHandler(svgTree));
+        return svgTree;
+    }
 
-        // Parse svg elements
-        nSvgNode = doc.getElementsByTagName("svg");
-        if (nSvgNode.getLength() != 1) {
-            throw new IllegalStateException("Not a proper SVG file");
-        }
-        Node rootNode = nSvgNode.item(0);
-        for (int i = 0; i < nSvgNode.getLength(); i++) {
-            Node nNode = nSvgNode.item(i);
-            if (nNode.getNodeType() == Node.ELEMENT_NODE) {
-                parseDimension(svgTree, nNode);
+    private static SvgTree parse(InputStream is, ConverterContext context) throws Exception {
+        SvgTree svgTree = new SvgTree(context);
+        svgTree.parse(is, new SvgHandler(svgTree));
+        return svgTree;
+    }
+
+    /**
+     * Builds the {@link SvgGroupNode} / {@link SvgLeafNode} tree directly from
+     * the SAX events, so no DOM is ever materialized for the document.
+     */
+    private static class SvgHandler extends DefaultHandler {
+        // One entry per open element, used for the group tree and style inheritance.
+        private static class Frame {
+            final SvgGroupNode mGroup;
+            // The style inherited by the children. Only <g> elements pass their style down.
+            final ComputedStyle mStyle;
+            int mChildCount;
+
+            Frame(SvgGroupNode group, ComputedStyle style) {
+                mGroup = group;
+                mStyle = style;
             }
         }
 
-        if (svgTree.viewBox == null) {
-//            svgTree.logErrorLine("Missing \"viewBox\" in <svg> element", rootNode, SvgTree.SvgLogLevel.ERROR);
-            return svgTree;
+        private final SvgTree mSvgTree;
+        // Null unless diagnostics are requested, checked before building any event.
+        private final ConversionListener mListener;
+        private final ArrayList<Frame> mFrames = new ArrayList<>();
+        private Locator mLocator;
+        private int mSvgCount;
+        // Nesting depth inside an element whose content is ignored (a leaf, or
+        // a hidden group).
+        private int mSkipDepth;
+        private boolean mStopped;
+
+        SvgHandler(SvgTree svgTree) {
+            mSvgTree = svgTree;
+            mListener = svgTree.getContext().getConversionListener();
         }
 
-        if ((svgTree.w == 0 || svgTree.h == 0) && svgTree.viewBox[2] > 0 && svgTree.viewBox[3] > 0) {
-            svgTree.w = svgTree.viewBox[2];
-            svgTree.h = svgTree.viewBox[3];
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            mLocator = locator;
         }
 
-        // Parse transformation information.
-        // TODO: Properly handle transformation in the group level. In the "use" case, we treat
-        // it as global for now.
-        NodeList nUseTags;
-        svgTree.matrix = new float[6];
-        svgTree.matrix[0] = 1;
-        svgTree.matrix[3] = 1;
-
-        nUseTags = doc.getElementsByTagName("use");
-        for (int temp = 0; temp < nUseTags.getLength(); temp++) {
-            Node nNode = nUseTags.item(temp);
-            if (nNode.getNodeType() == Node.ELEMENT_NODE) {
-                parseTransformation(svgTree, nNode);
-            }
+        private int getLineNumber() {
+            return mLocator != null ? mLocator.getLineNumber() : -1;
         }
 
-        SvgGroupNode root = new SvgGroupNode(svgTree, rootNode, "root");
-        svgTree.setRoot(root);
-
-        // Parse all the group and path node recursively.
-        traverseSVGAndExtract(svgTree, root, rootNode);
-
-        svgTree.dump(root);
-
-        return svgTree;
-    }
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            String nodeName = getName(localName, qName);
+            if ("svg".equals(nodeName)) {
+                mSvgCount++;
+                if (mSvgCount != 1) {
+                    throw new SAXException("Not a proper SVG file");
+                }
+                if (!startRoot(attributes)) {
+                    mStopped = true;
+                }
+                return;
+            }
+            if (mStopped || mFrames.isEmpty()) {
+                return;
+            }
 
-    private static void traverseSVGAndExtract(SvgTree svgTree, SvgGroupNode currentGroup, Node item) {
-        // Recursively traverse all the group and path nodes
-        NodeList allChildren = item.getChildNodes();
+            if ("use".equals(nodeName)) {
+                // TODO: Properly handle transformation in the group level. In the "use" case, we treat
+                // it as global for now.
+                parseTransformation(mSvgTree, attributes);
+            }
+            if (mSkipDepth > 0) {
+                mSkipDepth++;
+                return;
+            }
 
-        for (int i = 0; i < allChildren.getLength(); i++) {
-            Node currentNode = allChildren.item(i);
-            String nodeName = currentNode.getNodeName();
+            Frame parent = mFrames.get(mFrames.size() - 1);
+            int i = parent.mChildCount++;
             if (SVG_PATH.equals(nodeName) ||
                 SVG_RECT.equals(nodeName) ||
                 SVG_CIRCLE.equals(nodeName) ||
                 SVG_POLYGON.equals(nodeName) ||
                 SVG_LINE.equals(nodeName)) {
-                SvgLeafNode child = new SvgLeafNode(svgTree, currentNode, nodeName + i);
+                SvgLeafNode child = new SvgLeafNode(mSvgTree, getLineNumber(), nodeName + i);
 
-                extractAllItemsAs(svgTree, child, currentNode);
+                extractAllItemsAs(mSvgTree, child, nodeName, attributes, parent.mStyle);
+                if (mListener != null) {
+                    mListener.onShape(nodeName, child.getLineNumber());
+                }
 
-                currentGroup.addChild(child);
+                parent.mGroup.addChild(child);
+                // The children of a shape, like <animate>, are not converted.
+                mSkipDepth = 1;
             } else if (SVG_GROUP.equals(nodeName)) {
-                SvgGroupNode childGroup = new SvgGroupNode(svgTree, currentNode, "child" + i);
-                currentGroup.addChild(childGroup);
-                traverseSVGAndExtract(svgTree, childGroup, currentNode);
+                ComputedStyle style = parent.mStyle.derive(getAttribute(attributes, SVG_STYLE),
+                        getAttribute(attributes, SVG_DISPLAY));
+                if (style.isDisplayNone()) {
+                    if (mListener != null) {
+                        mListener.onGroupSkipped(getLineNumber());
+                    }
+                    mSkipDepth = 1;
+                    return;
+                }
+                SvgGroupNode childGroup = new SvgGroupNode(mSvgTree, getLineNumber(), "child" + i);
+                parent.mGroup.addChild(childGroup);
+                mFrames.add(new Frame(childGroup, style));
             } else {
                 // For other fancy tags, like <refs>, they can contain children too.
                 // Report the unsupported nodes.
-                if (unsupportedSvgNodes.contains(nodeName)) {
-//                    svgTree.logErrorLine("<" + nodeName + "> is not supported", currentNode,
-//                                         SvgTree.SvgLogLevel.ERROR);
+                if (mListener != null && unsupportedSvgNodes.contains(nodeName)) {
+                    mListener.onUnsupportedElement(nodeName, getLineNumber());
                 }
-                traverseSVGAndExtract(svgTree, currentGroup, currentNode);
+                mFrames.add(new Frame(parent.mGroup, ComputedStyle.EMPTY));
             }
         }
 
+        /**
+         * Parse the root element's dimensions and create the root group.
+         * @return false if the document can't be converted, and the rest of it should be ignored.
+         */
+        private boolean startRoot(Attributes attributes) {
+            parseDimension(mSvgTree, attributes);
+
+            if (mSvgTree.viewBox == null) {
+//                svgTree.logErrorLine("Missing \"viewBox\" in <svg> element", rootNode, SvgTree.SvgLogLevel.ERROR);
+                return false;
+            }
+
+            if ((mSvgTree.w == 0 || mSvgTree.h == 0) && mSvgTree.viewBox[2] > 0 && mSvgTree.viewBox[3] > 0) {
+                mSvgTree.w = mSvgTree.viewBox[2];
+                mSvgTree.h = mSvgTree.viewBox[3];
+            }
+
+            mSvgTree.matrix = new float[6];
+            mSvgTree.matrix[0] = 1;
+            mSvgTree.matrix[3] = 1;
+
+            SvgGroupNode root = new SvgGroupNode(mSvgTree, getLineNumber(), "root");
+            mSvgTree.setRoot(root);
+            mFrames.add(new Frame(root, ComputedStyle.EMPTY));
+            return true;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (mSkipDepth > 0) {
+                mSkipDepth--;
+            } else if (!mFrames.isEmpty()) {
+                mFrames.remove(mFrames.size() - 1);
+            }
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            // A second <svg> already failed in startElement, as soon as it was seen.
+            if (mSvgCount == 0) {
+                throw new SAXException("Not a proper SVG file");
+            }
+            if (mListener != null && mListener.isTreeDumpEnabled() && mSvgTree.getRoot() != null) {
+                mListener.onTreeDump(mSvgTree.dump(mSvgTree.getRoot()));
+            }
+        }
+    }
+
+    private static String getName(String localName, String qName) {
+        return localName != null && !localName.isEmpty() ? localName : qName;
     }
 
-    private static void parseTransformation(SvgTree avg, Node nNode) {
-        NamedNodeMap a = nNode.getAttributes();
+    private static String getAttribute(Attributes attributes, String name) {
+        String value = attributes.getValue("", name);
+        return value != null ? value : attributes.getValue(name);
+    }
+
+    private static void parseTransformation(SvgTree avg, Attributes a) {
         int len = a.getLength();
 
         for (int i = 0; i < len; i++) {
-            Node n = a.item(i);
-            String name = n.getNodeName();
-            String value = n.getNodeValue();
+            String name = getName(a.getLocalName(i), a.getQName(i));
+            String value = a.getValue(i);
             if (SVG_TRANSFORM.equals(name)) {
                 if (value.startsWith("matrix(")) {
-                    value = value.substring("matrix(".length(), value.length() - 1);
-                    String[] sp = value.split(" ");
-                    for (int j = 0; j < sp.length; j++) {
-                        avg.matrix[j] = Float.parseFloat(sp[j]);
-                    }
+                    int end = value.lastIndexOf(')');
+                    float[] numbers = avg.getContext().getFloatBuffer(value.length());
+                    int count = NumberScanner.scan(value, "matrix(".length(),
+                            end < 0 ? value.length() : end, numbers);
+                    System.arraycopy(numbers, 0, avg.matrix, 0, Math.min(count, avg.matrix.length));
                 }
             } else if (name.equals("y")) {
-                Float.parseFloat(value);
+                FloatParser.parseFloat(value);
             } else if (name.equals("x")) {
-                Float.parseFloat(value);
+                FloatParser.parseFloat(value);
             }
 
         }
     }
 
-    private static void parseDimension(SvgTree avg, Node nNode) {
-        NamedNodeMap a = nNode.getAttributes();
+    private static void parseDimension(SvgTree avg, Attributes a) {
         int len = a.getLength();
 
         for (int i = 0; i < len; i++) {
-            Node n = a.item(i);
-            String name = n.getNodeName();
-            String value = n.getNodeValue();
+            String name = getName(a.getLocalName(i), a.getQName(i));
+            String value = a.getValue(i);
             int subStringSize = value.length();
             if (subStringSize > 2) {
                 if (value.endsWith("px")) {
@@ -237,15 +319,16 @@ public class Svg2Vector {
             }
 
             if (SVG_WIDTH.equals(name)) {
-                avg.w = Float.parseFloat(value.substring(0, subStringSize));
+                avg.w = FloatParser.parseFloat(value, 0, subStringSize);
             } else if (SVG_HEIGHT.equals(name)) {
-                avg.h = Float.parseFloat(value.substring(0, subStringSize));
+                avg.h = FloatParser.parseFloat(value, 0, subStringSize);
             } else if (SVG_VIEW_BOX.equals(name)) {
-                avg.viewBox = new float[4];
-                String[] strbox = value.split(" ");
-                for (int j = 0; j < avg.viewBox.length; j++) {
-                    avg.viewBox[j] = Float.parseFloat(strbox[j]);
+                float[] numbers = avg.getContext().getFloatBuffer(value.length());
+                if (NumberScanner.scan(value, 0, value.length(), numbers) < 4) {
+                    throw new NumberFormatException("Invalid viewBox \"" + value + "\"");
                 }
+                avg.viewBox = new float[4];
+                System.arraycopy(numbers, 0, avg.viewBox, 0, 4);
             }
         }
         if (avg.viewBox == null && avg.w != 0 && avg.h != 0) {
@@ -255,380 +338,283 @@ public class Svg2Vector {
         }
     }
 
-    // Read the content from currentItem, and fill into "child"
-    private static void extractAllItemsAs(SvgTree avg, SvgLeafNode child, Node currentItem) {
-        Node currentGroup = currentItem.getParentNode();
-
-        boolean hasNodeAttr = false;
-        String styleContent = "";
-        boolean nothingToDisplay = false;
-
-        while (currentGroup != null && currentGroup.getNodeName().equals("g")) {
-            // Parse the group's attributes.
-            logger.log(Level.FINE, "Printing current parent");
-            printlnCommon(currentGroup);
-
-            NamedNodeMap attr = currentGroup.getAttributes();
-            Node nodeAttr = attr.getNamedItem(SVG_STYLE);
-            // Search for the "display:none", if existed, then skip this item.
-            if (nodeAttr != null) {
-                styleContent += nodeAttr.getTextContent() + ";";
-                logger.log(Level.FINE, "styleContent is :" + styleContent + "at number group ");
-                if (styleContent.contains("display:none")) {
-                    logger.log(Level.FINE, "Found none style, skip the whole group");
-                    nothingToDisplay = true;
-                    break;
-                } else {
-                    hasNodeAttr = true;
-                }
-            }
+    // Read the content from the element's attributes, and fill into "child"
+    private static void extractAllItemsAs(SvgTree avg, SvgLeafNode child, String nodeName,
+                                          Attributes attributes, ComputedStyle inheritedStyle) {
+        inheritedStyle.applyTo(child);
 
-            Node displayAttr = attr.getNamedItem(SVG_DISPLAY);
-            if (displayAttr != null && "none".equals(displayAttr.getNodeValue())) {
-                logger.log(Level.FINE, "Found display:none style, skip the whole group");
-                nothingToDisplay = true;
-                break;
-            }
-            currentGroup = currentGroup.getParentNode();
+        if (SVG_PATH.equals(nodeName)) {
+            extractPathItem(avg, child, attributes);
         }
 
-        if (nothingToDisplay) {
-            // Skip this current whole item.
-            return;
+        if (SVG_RECT.equals(nodeName)) {
+            extractRectItem(avg, child, attributes);
         }
 
-        logger.log(Level.FINE, "Print current item");
-        printlnCommon(currentItem);
-
-        if (hasNodeAttr && styleContent != null) {
-            addStyleToPath(child, styleContent);
+        if (SVG_CIRCLE.equals(nodeName)) {
+            extractCircleItem(avg, child, attributes);
         }
 
-        Node currentGroupNode = currentItem;
-
-        if (SVG_PATH.equals(currentGroupNode.getNodeName())) {
-            extractPathItem(avg, child, currentGroupNode);
+        if (SVG_POLYGON.equals(nodeName)) {
+            extractPolyItem(avg, child, attributes);
         }
 
-        if (SVG_RECT.equals(currentGroupNode.getNodeName())) {
-            extractRectItem(avg, child, currentGroupNode);
-        }
-
-        if (SVG_CIRCLE.equals(currentGroupNode.getNodeName())) {
-            extractCircleItem(avg, child, currentGroupNode);
-        }
-
-        if (SVG_POLYGON.equals(currentGroupNode.getNodeName())) {
-            extractPolyItem(avg, child, currentGroupNode);
-        }
-
-        if (SVG_LINE.equals(currentGroupNode.getNodeName())) {
-            extractLineItem(avg, child, currentGroupNode);
-        }
-    }
-
-    private static void printlnCommon(Node n) {
-        logger.log(Level.FINE, " nodeName=\"" + n.getNodeName() + "\"");
-
-        String val = n.getNamespaceURI();
-        if (val != null) {
-            logger.log(Level.FINE, " uri=\"" + val + "\"");
-        }
-
-        val = n.getPrefix();
-
-        if (val != null) {
-            logger.log(Level.FINE, " pre=\"" + val + "\"");
-        }
-
-        val = n.getLocalName();
-        if (val != null) {
-            logger.log(Level.FINE, " local=\"" + val + "\"");
-        }
-
-        val = n.getNodeValue();
-        if (val != null) {
-            logger.log(Level.FINE, " nodeValue=");
-            if (val.trim().equals("")) {
-                // Whitespace
-                logger.log(Level.FINE, "[WS]");
-            } else {
-                logger.log(Level.FINE, "\"" + n.getNodeValue() + "\"");
-            }
+        if (SVG_LINE.equals(nodeName)) {
+            extractLineItem(avg, child, attributes);
         }
     }
 
     /**
      * Convert polygon element into a path.
      */
-    private static void extractPolyItem(SvgTree avg, SvgLeafNode child, Node currentGroupNode) {
-        logger.log(Level.FINE, "Rect found" + currentGroupNode.getTextContent());
-        if (currentGroupNode.getNodeType() == Node.ELEMENT_NODE) {
-
-            NamedNodeMap a = currentGroupNode.getAttributes();
-            int len = a.getLength();
-
-            for (int itemIndex = 0; itemIndex < len; itemIndex++) {
-                Node n = a.item(itemIndex);
-                String name = n.getNodeName();
-                String value = n.getNodeValue();
-                if (name.equals(SVG_STYLE)) {
-                    addStyleToPath(child, value);
-                } else if (presentationMap.containsKey(name)) {
-                    child.fillPresentationAttributes(name, value);
-                } else if (name.equals(SVG_POINTS)) {
-                    PathBuilder builder = new PathBuilder();
-                    String[] split = value.split("[\\s,]+");
-                    float baseX = Float.parseFloat(split[0]);
-                    float baseY = Float.parseFloat(split[1]);
-                    builder.absoluteMoveTo(baseX, baseY);
-                    for (int j = 2; j < split.length; j += 2) {
-                        float x = Float.parseFloat(split[j]);
-                        float y = Float.parseFloat(split[j + 1]);
-                        builder.relativeLineTo(x - baseX, y - baseY);
-                        baseX = x;
-                        baseY = y;
-                    }
-                    builder.relativeClose();
-                    child.setPathData(builder.toString());
+    private static void extractPolyItem(SvgTree avg, SvgLeafNode child, Attributes a) {
+        int len = a.getLength();
+
+        String style = null;
+        for (int itemIndex = 0; itemIndex < len; itemIndex++) {
+            String name = getName(a.getLocalName(itemIndex), a.getQName(itemIndex));
+            String value = a.getValue(itemIndex);
+            PresentationAttribute attribute = PresentationAttribute.fromSvgName(name);
+            if (name.equals(SVG_STYLE)) {
+                style = value;
+            } else if (attribute != null) {
+                child.fillPresentationAttribute(attribute, value);
+            } else if (name.equals(SVG_POINTS)) {
+                PathBuilder builder = new PathBuilder(avg.getContext().getStringBuilder());
+                float[] points = avg.getContext().getFloatBuffer(value.length());
+                // An odd number of coordinates is an error; SVG renders up to the last full point.
+                int count = NumberScanner.scan(value, 0, value.length(), points) & ~1;
+                if (count == 0) {
+                    continue;
+                }
+                float baseX = points[0];
+                float baseY = points[1];
+                builder.absoluteMoveTo(baseX, baseY);
+                for (int j = 2; j < count; j += 2) {
+                    float x = points[j];
+                    float y = points[j + 1];
+                    builder.relativeLineTo(x - baseX, y - baseY);
+                    baseX = x;
+                    baseY = y;
                 }
+                builder.relativeClose();
+                child.setPathData(builder.toString());
             }
         }
+        addStyleToPath(child, style);
     }
 
     /**
      * Convert rectangle element into a path.
      */
-    private static void extractRectItem(SvgTree avg, SvgLeafNode child, Node currentGroupNode) {
-        logger.log(Level.FINE, "Rect found" + currentGroupNode.getTextContent());
-
-        if (currentGroupNode.getNodeType() == Node.ELEMENT_NODE) {
-            float x = 0;
-            float y = 0;
-            float width = Float.NaN;
-            float height = Float.NaN;
-
-            NamedNodeMap a = currentGroupNode.getAttributes();
-            int len = a.getLength();
-            boolean pureTransparent = false;
-            for (int j = 0; j < len; j++) {
-                Node n = a.item(j);
-                String name = n.getNodeName();
-                String value = n.getNodeValue();
-                if (name.equals(SVG_STYLE)) {
-                    addStyleToPath(child, value);
-                    if (value.contains("opacity:0;")) {
-                        pureTransparent = true;
-                    }
-                } else if (presentationMap.containsKey(name)) {
-                    child.fillPresentationAttributes(name, value);
-                } else if (name.equals("clip-path") && value.startsWith("url(#SVGID_")) {
-
-                } else if (name.equals("x")) {
-                    x = Float.parseFloat(value);
-                } else if (name.equals("y")) {
-                    y = Float.parseFloat(value);
-                } else if (name.equals("width")) {
-                    width = Float.parseFloat(value);
-                } else if (name.equals("height")) {
-                    height = Float.parseFloat(value);
-                } else if (name.equals("style")) {
+    private static void extractRectItem(SvgTree avg, SvgLeafNode child, Attributes a) {
 
+        float x = 0;
+        float y = 0;
+        float width = Float.NaN;
+        float height = Float.NaN;
+
+        int len = a.getLength();
+        boolean pureTransparent = false;
+        String style = null;
+        for (int j = 0; j < len; j++) {
+            String name = getName(a.getLocalName(j), a.getQName(j));
+            String value = a.getValue(j);
+            PresentationAttribute attribute = PresentationAttribute.fromSvgName(name);
+            if (name.equals(SVG_STYLE)) {
+                style = value;
+                if (value.contains("opacity:0;")) {
+                    pureTransparent = true;
                 }
+            } else if (attribute != null) {
+                child.fillPresentationAttribute(attribute, value);
+            } else if (name.equals("clip-path") && value.startsWith("url(#SVGID_")) {
 
-            }
+            } else if (name.equals("x")) {
+                x = FloatParser.parseFloat(value);
+            } else if (name.equals("y")) {
+                y = FloatParser.parseFloat(value);
+            } else if (name.equals("width")) {
+                width = FloatParser.parseFloat(value);
+            } else if (name.equals("height")) {
+                height = FloatParser.parseFloat(value);
+            } else if (name.equals("style")) {
 
-            if (!pureTransparent && avg != null && !Float.isNaN(x) && !Float.isNaN(y)
-                    && !Float.isNaN(width)
-                    && !Float.isNaN(height)) {
-                // "M x, y h width v height h -width z"
-                PathBuilder builder = new PathBuilder();
-                builder.absoluteMoveTo(x, y);
-                builder.relativeHorizontalTo(width);
-                builder.relativeVerticalTo(height);
-                builder.relativeHorizontalTo(-width);
-                builder.relativeClose();
-                child.setPathData(builder.toString());
             }
+
+        }
+        addStyleToPath(child, style);
+
+        if (!pureTransparent && avg != null && !Float.isNaN(x) && !Float.isNaN(y)
+                && !Float.isNaN(width)
+                && !Float.isNaN(height)) {
+            // "M x, y h width v height h -width z"
+            PathBuilder builder = new PathBuilder(avg.getContext().getStringBuilder());
+            builder.absoluteMoveTo(x, y);
+            builder.relativeHorizontalTo(width);
+            builder.relativeVerticalTo(height);
+            builder.relativeHorizontalTo(-width);
+            builder.relativeClose();
+            child.setPathData(builder.toString());
         }
     }
 
     /**
      * Convert circle element into a path.
      */
-    private static void extractCircleItem(SvgTree avg, SvgLeafNode child, Node currentGroupNode) {
-        logger.log(Level.FINE, "circle found" + currentGroupNode.getTextContent());
-
-        if (currentGroupNode.getNodeType() == Node.ELEMENT_NODE) {
-            float cx = 0;
-            float cy = 0;
-            float radius = 0;
-
-            NamedNodeMap a = currentGroupNode.getAttributes();
-            int len = a.getLength();
-            boolean pureTransparent = false;
-            for (int j = 0; j < len; j++) {
-                Node n = a.item(j);
-                String name = n.getNodeName();
-                String value = n.getNodeValue();
-                if (name.equals(SVG_STYLE)) {
-                    addStyleToPath(child, value);
-                    if (value.contains("opacity:0;")) {
-                        pureTransparent = true;
-                    }
-                } else if (presentationMap.containsKey(name)) {
-                    child.fillPresentationAttributes(name, value);
-                } else if (name.equals("clip-path") && value.startsWith("url(#SVGID_")) {
-
-                } else if (name.equals("cx")) {
-                    cx = Float.parseFloat(value);
-                } else if (name.equals("cy")) {
-                    cy = Float.parseFloat(value);
-                } else if (name.equals("r")) {
-                    radius = Float.parseFloat(value);
-                }
+    private static void extractCircleItem(SvgTree avg, SvgLeafNode child, Attributes a) {
 
-            }
+        float cx = 0;
+        float cy = 0;
+        float radius = 0;
 
-            if (!pureTransparent && avg != null && !Float.isNaN(cx) && !Float.isNaN(cy)) {
-                // "M cx cy m -r, 0 a r,r 0 1,1 (r * 2),0 a r,r 0 1,1 -(r * 2),0"
-                PathBuilder builder = new PathBuilder();
-                builder.absoluteMoveTo(cx, cy);
-                builder.relativeMoveTo(-radius, 0);
-                builder.relativeArcTo(radius, radius, false, true, true, 2 * radius, 0);
-                builder.relativeArcTo(radius, radius, false, true, true, -2 * radius, 0);
-                child.setPathData(builder.toString());
+        int len = a.getLength();
+        boolean pureTransparent = false;
+        String style = null;
+        for (int j = 0; j < len; j++) {
+            String name = getName(a.getLocalName(j), a.getQName(j));
+            String value = a.getValue(j);
+            PresentationAttribute attribute = PresentationAttribute.fromSvgName(name);
+            if (name.equals(SVG_STYLE)) {
+                style = value;
+                if (value.contains("opacity:0;")) {
+                    pureTransparent = true;
+                }
+            } else if (attribute != null) {
+                child.fillPresentationAttribute(attribute, value);
+            } else if (name.equals("clip-path") && value.startsWith("url(#SVGID_")) {
+
+            } else if (name.equals("cx")) {
+                cx = FloatParser.parseFloat(value);
+            } else if (name.equals("cy")) {
+                cy = FloatParser.parseFloat(value);
+            } else if (name.equals("r")) {
+                radius = FloatParser.parseFloat(value);
             }
+
+        }
+        addStyleToPath(child, style);
+
+        if (!pureTransparent && avg != null && !Float.isNaN(cx) && !Float.isNaN(cy)) {
+            // "M cx cy m -r, 0 a r,r 0 1,1 (r * 2),0 a r,r 0 1,1 -(r * 2),0"
+            PathBuilder builder = new PathBuilder(avg.getContext().getStringBuilder());
+            builder.absoluteMoveTo(cx, cy);
+            builder.relativeMoveTo(-radius, 0);
+            builder.relativeArcTo(radius, radius, false, true, true, 2 * radius, 0);
+            builder.relativeArcTo(radius, radius, false, true, true, -2 * radius, 0);
+            child.setPathData(builder.toString());
         }
     }
 
     /**
      * Convert line element into a path.
      */
-    private static void extractLineItem(SvgTree avg, SvgLeafNode child, Node currentGroupNode) {
-        logger.log(Level.FINE, "line found" + currentGroupNode.getTextContent());
-
-        if (currentGroupNode.getNodeType() == Node.ELEMENT_NODE) {
-            float x1 = 0;
-            float y1 = 0;
-            float x2 = 0;
-            float y2 = 0;
-
-            NamedNodeMap a = currentGroupNode.getAttributes();
-            int len = a.getLength();
-            boolean pureTransparent = false;
-            for (int j = 0; j < len; j++) {
-                Node n = a.item(j);
-                String name = n.getNodeName();
-                String value = n.getNodeValue();
-                if (name.equals(SVG_STYLE)) {
-                    addStyleToPath(child, value);
-                    if (value.contains("opacity:0;")) {
-                        pureTransparent = true;
-                    }
-                } else if (presentationMap.containsKey(name)) {
-                    child.fillPresentationAttributes(name, value);
-                } else if (name.equals("clip-path") && value.startsWith("url(#SVGID_")) {
-                    // TODO: Handle clip path here.
-                } else if (name.equals("x1")) {
-                    x1 = Float.parseFloat(value);
-                } else if (name.equals("y1")) {
-                    y1 = Float.parseFloat(value);
-                } else if (name.equals("x2")) {
-                    x2 = Float.parseFloat(value);
-                } else if (name.equals("y2")) {
-                    y2 = Float.parseFloat(value);
-                }
-            }
+    private static void extractLineItem(SvgTree avg, SvgLeafNode child, Attributes a) {
 
-            if (!pureTransparent && avg != null && !Float.isNaN(x1) && !Float.isNaN(y1)
-                    && !Float.isNaN(x2) && !Float.isNaN(y2)) {
-                // "M x1, y1 L x2, y2"
-                PathBuilder builder = new PathBuilder();
-                builder.absoluteMoveTo(x1, y1);
-                builder.absoluteLineTo(x2, y2);
-                child.setPathData(builder.toString());
+        float x1 = 0;
+        float y1 = 0;
+        float x2 = 0;
+        float y2 = 0;
+
+        int len = a.getLength();
+        boolean pureTransparent = false;
+        String style = null;
+        for (int j = 0; j < len; j++) {
+            String name = getName(a.getLocalName(j), a.getQName(j));
+            String value = a.getValue(j);
+            PresentationAttribute attribute = PresentationAttribute.fromSvgName(name);
+            if (name.equals(SVG_STYLE)) {
+                style = value;
+                if (value.contains("opacity:0;")) {
+                    pureTransparent = true;
+                }
+            } else if (attribute != null) {
+                child.fillPresentationAttribute(attribute, value);
+            } else if (name.equals("clip-path") && value.startsWith("url(#SVGID_")) {
+                // TODO: Handle clip path here.
+            } else if (name.equals("x1")) {
+                x1 = FloatParser.parseFloat(value);
+            } else if (name.equals("y1")) {
+                y1 = FloatParser.parseFloat(value);
+            } else if (name.equals("x2")) {
+                x2 = FloatParser.parseFloat(value);
+            } else if (name.equals("y2")) {
+                y2 = FloatParser.parseFloat(value);
             }
         }
+        addStyleToPath(child, style);
+
+        if (!pureTransparent && avg != null && !Float.isNaN(x1) && !Float.isNaN(y1)
+                && !Float.isNaN(x2) && !Float.isNaN(y2)) {
+            // "M x1, y1 L x2, y2"
+            PathBuilder builder = new PathBuilder(avg.getContext().getStringBuilder());
+            builder.absoluteMoveTo(x1, y1);
+            builder.absoluteLineTo(x2, y2);
+            child.setPathData(builder.toString());
+        }
 
     }
 
-    private static void extractPathItem(SvgTree avg, SvgLeafNode child, Node currentGroupNode) {
-        logger.log(Level.FINE, "Path found " + currentGroupNode.getTextContent());
-
-        if (currentGroupNode.getNodeType() == Node.ELEMENT_NODE) {
-            Element eElement = (Element)currentGroupNode;
-
-            NamedNodeMap a = currentGroupNode.getAttributes();
-            int len = a.getLength();
-
-            for (int j = 0; j < len; j++) {
-                Node n = a.item(j);
-                String name = n.getNodeName();
-                String value = n.getNodeValue();
-                if (name.equals(SVG_STYLE)) {
-                    addStyleToPath(child, value);
-                } else if (presentationMap.containsKey(name)) {
-                    child.fillPresentationAttributes(name, value);
-                } else if (name.equals(SVG_D)) {
-                    String pathData = value.replaceAll("(\\d)-", "$1,-");
-                    child.setPathData(pathData);
-                }
+    private static void extractPathItem(SvgTree avg, SvgLeafNode child, Attributes a) {
+        int len = a.getLength();
 
+        String style = null;
+        for (int j = 0; j < len; j++) {
+            String name = getName(a.getLocalName(j), a.getQName(j));
+            String value = a.getValue(j);
+            PresentationAttribute attribute = PresentationAttribute.fromSvgName(name);
+            if (name.equals(SVG_STYLE)) {
+                style = value;
+            } else if (attribute != null) {
+                child.fillPresentationAttribute(attribute, value);
+            } else if (name.equals(SVG_D)) {
+                String pathData = avg.getContext().separateNegativeNumbers(value);
+                child.setPathData(pathData);
             }
+
         }
+        addStyleToPath(child, style);
     }
 
+    /**
+     * Apply the inline style, after all the presentation attributes of the
+     * element, since it wins over them whatever their order.
+     */
     private static void addStyleToPath(SvgLeafNode path, String value) {
-        logger.log(Level.FINE, "Style found is " + value);
         if (value != null) {
-            String[] parts = value.split(";");
-            for (int k = parts.length - 1; k >= 0; k--) {
-                String subStyle = parts[k];
-                String[] nameValue = subStyle.split(":");
-                if (nameValue.length == 2 && nameValue[0] != null && nameValue[1] != null) {
-                    if (presentationMap.containsKey(nameValue[0])) {
-                        path.fillPresentationAttributes(nameValue[0], nameValue[1]);
-                    } else if (nameValue[0].equals(SVG_OPACITY)) {
-                        // TODO: This is hacky, since we don't have a group level
-                        // android:opacity. This only works when the path didn't overlap.
-                        path.fillPresentationAttributes(SVG_FILL_OPACITY, nameValue[1]);
-                    }
-                }
-            }
+            path.applyStyle(value);
         }
     }
 
-    private static final String head = "<vector xmlns:android=\"http://schemas.android.com/apk/res/android\"\n";
-
-    private static String getSizeString(float w, float h, float scaleFactor) {
-        String size = "        android:width=\"" + (int) (w * scaleFactor) + "dp\"\n" +
-                      "        android:height=\"" + (int) (h * scaleFactor) + "dp\"\n";
-        return size;
-    }
-
+    /**
+     * Write the VectorDrawable. The stream is flushed, and left open.
+     */
     private static void writeFile(OutputStream outStream, SvgTree svgTree) throws IOException {
-
-        OutputStreamWriter fw = new OutputStreamWriter(outStream);
-        fw.write(head);
-        float finalWidth = svgTree.w;
-        float finalHeight = svgTree.h;
-
-        fw.write(getSizeString(finalWidth, finalHeight, svgTree.mScaleFactor));
-
-        fw.write("        android:viewportWidth=\"" + svgTree.w + "\"\n");
-        fw.write("        android:viewportHeight=\"" + svgTree.h + "\">\n");
+        OutputOptions options = svgTree.getContext().getOutputOptions();
+        VectorDrawableOutput writer = options.isBinaryXml() ? new BinaryXmlWriter(outStream)
+                : new VectorDrawableWriter(outStream, options.isMinifyXml());
+        StringBuilder value = svgTree.getContext().getStringBuilder();
+        writer.startTag("", "vector");
+        writer.namespace(SdkConstants.ANDROID_NS_NAME, SdkConstants.ANDROID_URI);
+
+        value.append((int) (svgTree.w * svgTree.mScaleFactor)).append("dp");
+        writer.attribute("android:width", value);
+        value.setLength(0);
+        value.append((int) (svgTree.h * svgTree.mScaleFactor)).append("dp");
+        writer.attribute("android:height", value);
+        value.setLength(0);
+        value.append(svgTree.w);
+        writer.attribute("android:viewportWidth", value);
+        value.setLength(0);
+        value.append(svgTree.h);
+        writer.attribute("android:viewportHeight", value);
+        writer.endStartTag();
 
         svgTree.normalize();
         // TODO: this has to happen in the tree mode!!!
-        writeXML(svgTree, fw);
-        fw.write("</vector>\n");
-
-        fw.close();
-    }
-
-    private static void writeXML(SvgTree svgTree, OutputStreamWriter fw) throws IOException {
-        svgTree.getRoot().writeXML(fw);
+        svgTree.getRoot().writeXML(writer);
+        writer.endTag("", "vector");
+        writer.flush();
     }
 
     /**
@@ -636,16 +622,29 @@ public class Svg2Vector {
      *
      * @param inputSVG the input SVG file
      * @param outStream the converted VectorDrawable's content. This can be
-     *                  empty if there is any error found during parsing
+     *                  empty if there is any error found during parsing. It is
+     *                  flushed, and left open
      * @return the error messages, which contain things like all the tags
      *         VectorDrawble don't support or exception message.
      */
     public static String parseSvgToXml(File inputSVG, OutputStream outStream) {
+        return parseSvgToXml(inputSVG, outStream, new ConverterContext());
+    }
+
+    /**
+     * Convert a SVG file into VectorDrawable's XML content, if no error is found.
+     *
+     * @param inputSVG the input SVG file
+     * @param outStream the converted VectorDrawable's content, flushed and left open
+     * @param context the parsers and buffers to reuse, see {@link ConverterContext}
+     * @return the error messages, or null if the conversion succeeded
+     */
+    public static String parseSvgToXml(File inputSVG, OutputStream outStream, ConverterContext context) {
         // Write all the error message during parsing into SvgTree. and return here as getErrorLog().
         // We will also log the exceptions here.
         String errorLog = null;
         try {
-            SvgTree svgTree = parse(inputSVG);
+            SvgTree svgTree = parse(inputSVG, context);
 //            errorLog = svgTree.getErrorLog();
             // When there was anything in the input SVG file that we can't
             // convert to VectorDrawable, we logged them as errors.
@@ -668,4 +667,81 @@ public class Svg2Vector {
         }
         return errorLog;
     }
+
+    /**
+     * Convert a SVG document read from a stream into VectorDrawable's XML content,
+     * if no error is found. The stream is consumed but not closed.
+     *
+     * @param inputSVG the input SVG document
+     * @param outStream the converted VectorDrawable's content, flushed and left open
+     * @return the error messages, or null if the conversion succeeded
+     */
+    public static String parseSvgToXml(InputStream inputSVG, OutputStream outStream) {
+        return parseSvgToXml(inputSVG, outStream, new ConverterContext());
+    }
+
+    /**
+     * Same as {@link #parseSvgToXml(InputStream, OutputStream)}, reusing the given context.
+     */
+    public static String parseSvgToXml(InputStream inputSVG, OutputStream outStream,
+                                       ConverterContext context) {
+        return parseSvgToXml(inputSVG, "InputStream", outStream, context);
+    }
+
+    /**
+     * Convert a SVG document held in a byte array into VectorDrawable's XML content,
+     * if no error is found. The bytes are handed to the XML parser as is.
+     *
+     * @param inputSVG the buffer holding the input SVG document
+     * @param offset the offset of the document in the buffer
+     * @param length the length of the document in bytes
+     * @param outStream the converted VectorDrawable's content, flushed and left open
+     * @return the error messages, or null if the conversion succeeded
+     */
+    public static String parseSvgToXml(byte[] inputSVG, int offset, int length, OutputStream outStream) {
+        return parseSvgToXml(inputSVG, offset, length, outStream, new ConverterContext());
+    }
+
+    /**
+     * Same as {@link #parseSvgToXml(byte[], int, int, OutputStream)}, reusing the given context.
+     */
+    public static String parseSvgToXml(byte[] inputSVG, int offset, int length, OutputStream outStream,
+                                       ConverterContext context) {
+        return parseSvgToXml(new ByteArrayInputStream(inputSVG, offset, length), "byte[]", outStream,
+                context);
+    }
+
+    /**
+     * Convert the remaining bytes of a buffer into VectorDrawable's XML content,
+     * if no error is found. The buffer's position is left untouched.
+     *
+     * @param inputSVG the buffer holding the input SVG document
+     * @param outStream the converted VectorDrawable's content, flushed and left open
+     * @return the error messages, or null if the conversion succeeded
+     */
+    public static String parseSvgToXml(ByteBuffer inputSVG, OutputStream outStream) {
+        return parseSvgToXml(inputSVG, outStream, new ConverterContext());
+    }
+
+    /**
+     * Same as {@link #parseSvgToXml(ByteBuffer, OutputStream)}, reusing the given context.
+     */
+    public static String parseSvgToXml(ByteBuffer inputSVG, OutputStream outStream,
+                                       ConverterContext context) {
+        return parseSvgToXml(new ByteBufferInputStream(inputSVG), "ByteBuffer", outStream, context);
+    }
+
+    private static String parseSvgToXml(InputStream inputSVG, String sourceName, OutputStream outStream,
+                                        ConverterContext context) {
+        String errorLog = null;
+        try {
+            SvgTree svgTree = parse(inputSVG, context);
+            if (svgTree.canConvertToVectorDrawable()) {
+                writeFile(outStream, svgTree);
+            }
+        } catch (Exception e) {
+            errorLog = "EXCEPTION in parsing " + sourceName + ":\n" + e.getMessage();
+        }
+        return errorLog;
+    }
 }
@@ -16,24 +16,18 @@
 
 package com.github.yzjdev.svg2vector;
 
-import org.w3c.dom.Node;
-
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Represent a SVG file's group element.
  */
 class SvgGroupNode extends SvgNode {
-    private static Logger logger = Logger.getLogger(SvgGroupNode.class.getSimpleName());
     private static final String INDENT_LEVEL = "    ";
     private ArrayList<SvgNode> mChildren = new ArrayList<SvgNode>();
 
-    public SvgGroupNode(SvgTree svgTree, Node docNode, String name) {
-        super(svgTree, docNode, name);
+    public SvgGroupNode(SvgTree svgTree, int lineNumber, String name) {
+        super(svgTree, lineNumber, name);
     }
 
     public void addChild(SvgNode child) {
@@ -41,13 +35,14 @@ class SvgGroupNode extends SvgNode {
     }
 
     @Override
-    public void dumpNode(String indent) {
+    public void dumpNode(StringBuilder sb, String indent) {
         // Print the current group.
-        logger.log(Level.FINE, indent + "current group is :" + getName());
+        sb.append(indent).append("current group is :").append(getName()).append('\n');
 
         // Then print all the children.
+        String childIndent = indent + INDENT_LEVEL;
         for (SvgNode node : mChildren) {
-            node.dumpNode(indent + INDENT_LEVEL);
+            node.dumpNode(sb, childIndent);
         }
     }
 
@@ -64,7 +59,27 @@ class SvgGroupNode extends SvgNode {
     }
 
     @Override
-    public void writeXML(OutputStreamWriter writer) throws IOException {
+    public float[] getBounds() {
+        float[] bounds = null;
+        for (SvgNode node : mChildren) {
+            float[] child = node.getBounds();
+            if (child == null) {
+                continue;
+            }
+            if (bounds == null) {
+                bounds = child.clone();
+            } else {
+                bounds[PathBounds.LEFT] = Math.min(bounds[PathBounds.LEFT], child[PathBounds.LEFT]);
+                bounds[PathBounds.TOP] = Math.min(bounds[PathBounds.TOP], child[PathBounds.TOP]);
+                bounds[PathBounds.RIGHT] = Math.max(bounds[PathBounds.RIGHT], child[PathBounds.RIGHT]);
+                bounds[PathBounds.BOTTOM] = Math.max(bounds[PathBounds.BOTTOM], child[PathBounds.BOTTOM]);
+            }
+        }
+        return bounds;
+    }
+
+    @Override
+    public void writeXML(VectorDrawableOutput writer) throws IOException {
         for (SvgNode node : mChildren) {
             node.writeXML(writer);
         }
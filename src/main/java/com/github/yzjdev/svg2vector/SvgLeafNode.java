@@ -19,111 +19,38 @@ package com.github.yzjdev.svg2vector;
 
 
 //import com.google.common.collect.ImmutableMap;
-import org.w3c.dom.Node;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Represent a SVG file's leave element.
  */
 class SvgLeafNode extends SvgNode {
-    private static Logger logger = Logger.getLogger(SvgLeafNode.class.getSimpleName());
 
     private String mPathData;
+    // Computed on the first use, and reset when the path data changes.
+    private float[] mBounds;
+    // True once the path data went through the writer, which gives it the
+    // converter's own format. Until then, it is as found in the document.
+    private boolean mRewritten;
 
-    // Key is the attributes for vector drawable, and the value is the converted from SVG.
-    private HashMap<String, String> mVdAttributesMap = new HashMap<String, String>();
+    // The presentation attributes, already converted from SVG.
+    private final PresentationStyle mStyle = new PresentationStyle();
 
-    public SvgLeafNode(SvgTree svgTree, Node node, String nodeName) {
-        super(svgTree, node, nodeName);
-    }
-
-    private String getAttributeValues(Map<String, String> presentationMap) {
-        StringBuilder sb = new StringBuilder("/>\n");
-        for (String key : mVdAttributesMap.keySet()) {
-            String vectorDrawableAttr = presentationMap.get(key);
-            String svgValue = mVdAttributesMap.get(key);
-            String vdValue = svgValue.trim();
-            // There are several cases we need to convert from SVG format to
-            // VectorDrawable format. Like "none", "3px" or "rgb(255, 0, 0)"
-            if ("none".equals(vdValue)) {
-                vdValue = "#00000000";
-            } else if (vdValue.endsWith("px")){
-                vdValue = vdValue.substring(0, vdValue.length() - 2);
-            } else if (vdValue.startsWith("rgb")) {
-                vdValue = vdValue.substring(3, vdValue.length());
-                vdValue = convertRGBToHex(vdValue);
-//                if (vdValue == null) {
-//                    getTree().logErrorLine("Unsupported Color format " + vdValue, getDocumentNode(),
-//                                           SvgTree.SvgLogLevel.ERROR);
-//                }
-            }
-            String attr = "\n        " + vectorDrawableAttr + "=\"" +
-                          vdValue + "\"";
-            sb.insert(0, attr);
-
-        }
-        return sb.toString();
-    }
-
-    public static int clamp(int val, int min, int max) {
-        return Math.max(min, Math.min(max, val));
-    }
-
-    /**
-     * SVG allows using rgb(int, int, int) or rgb(float%, float%, float%) to
-     * represent a color, but Android doesn't. Therefore, we need to convert
-     * them into #RRGGBB format.
-     * @param svgValue in either "(int, int, int)" or "(float%, float%, float%)"
-     * @return #RRGGBB in hex format, or null, if an error is found.
-     */
-
-    private String convertRGBToHex(String svgValue) {
-        // We don't support color keyword yet.
-        // http://www.w3.org/TR/SVG11/types.html#ColorKeywords
-        String result = null;
-        String functionValue = svgValue.trim();
-        functionValue = svgValue.substring(1, functionValue.length() - 1);
-        // After we cut the "(", ")", we can deal with the numbers.
-        String[] numbers = functionValue.split(",");
-        if (numbers.length != 3) {
-            return null;
-        }
-        int[] color = new int[3];
-        for (int i = 0; i < 3; i ++) {
-            String number = numbers[i];
-            number = number.trim();
-            if (number.endsWith("%")) {
-                float value = Float.parseFloat(number.substring(0, number.length() - 1));
-                color[i] = clamp((int)(value * 255.0f / 100.0f), 0, 255);
-            } else {
-                int value = Integer.parseInt(number);
-                color[i] = clamp(value, 0, 255);
-            }
-        }
-        StringBuilder builder = new StringBuilder();
-        builder.append("#");
-        for (int i = 0; i < 3; i ++) {
-            builder.append(String.format("%02X", color[i]));
-        }
-        result = builder.toString();
-        assert result.length() == 7;
-        return result;
+    public SvgLeafNode(SvgTree svgTree, int lineNumber, String nodeName) {
+        super(svgTree, lineNumber, nodeName);
     }
 
     @Override
-    public void dumpNode(String indent) {
-        logger.log(Level.FINE, indent + (mPathData != null ? mPathData : " null pathData ") +
-                               (mName != null ? mName : " null name "));
+    public void dumpNode(StringBuilder sb, String indent) {
+        sb.append(indent).append(mPathData != null ? mPathData : " null pathData ")
+                .append(mName != null ? mName : " null name ").append('\n');
     }
 
     public void setPathData(String pathData) {
         mPathData = pathData;
+        mBounds = null;
+        mRewritten = false;
     }
 
     @Override
@@ -133,47 +60,107 @@ class SvgLeafNode extends SvgNode {
 
     @Override
     public void transform(float a, float b, float c, float d, float e, float f) {
-        if ("none".equals(mVdAttributesMap.get("fill")) || (mPathData == null)) {
+        if (mStyle.isFillNone() && mStyle.isStrokeNone() || (mPathData == null)) {
             // Nothing to draw and transform, early return.
             return;
         }
         // TODO: We need to just apply the transformation to group.
-        VdPath.Node[] n = VdParser.parsePath(mPathData);
+        // Stream the segments from the tokenizer, through the transformation,
+        // straight into the new path data.
+        StringBuilder sb = getTree().getContext().getStringBuilder();
+        PathVisitor pipeline = new PathWriter(sb);
         if (!(a == 1 && d == 1 && b == 0 && c == 0 && e == 0 && f == 0)) {
-            VdPath.Node.transform(a, b, c, d, e, f, n);
+            pipeline = new PathTransformer(a, b, c, d, e, f, pipeline);
+        }
+        try {
+            PathTokenizer.tokenize(mPathData, pipeline);
+        } catch (IllegalArgumentException ex) {
+            // Also covers NumberFormatException.
+            throw new RuntimeException("error in parsing \"" + mPathData + "\"", ex);
+        }
+        mPathData = sb.toString();
+        mBounds = null;
+        mRewritten = true;
+    }
+
+    @Override
+    public float[] getBounds() {
+        if (mBounds == null && mPathData != null) {
+            PathBounds bounds = new PathBounds();
+            PathTokenizer.tokenize(mPathData, bounds);
+            mBounds = bounds.getBounds();
         }
-        mPathData = VdPath.Node.NodeListToString(n);
+        return mBounds;
     }
 
     @Override
-    public void writeXML(OutputStreamWriter writer) throws IOException {
-        String fillColor = mVdAttributesMap.get(Svg2Vector.SVG_FILL_COLOR);
-        String strokeColor = mVdAttributesMap.get(Svg2Vector.SVG_STROKE_COLOR);
-        logger.log(Level.FINE, "fill color " + fillColor);
-        boolean emptyFill = fillColor != null && ("none".equals(fillColor) || "#0000000".equals(fillColor));
-        boolean emptyStroke = strokeColor == null || "none".equals(strokeColor);
+    public void writeXML(VectorDrawableOutput writer) throws IOException {
+        boolean emptyFill = mStyle.isFillNone();
+        boolean emptyStroke = mStyle.isStrokeNone();
         boolean emptyPath = mPathData == null;
         boolean nothingToDraw = emptyPath || emptyFill && emptyStroke;
         if (nothingToDraw) {
             return;
         }
 
-        writer.write("    <path\n");
-        if (!mVdAttributesMap.containsKey(Svg2Vector.SVG_FILL_COLOR)) {
-            logger.log(Level.FINE, "ADDING FILL SVG_FILL_COLOR");
-            writer.write("        android:fillColor=\"#FF000000\"\n");
+        StringBuilder sb = getTree().getContext().getStringBuilder();
+        CharSequence pathData = mPathData;
+        OutputOptions options = getTree().getContext().getOutputOptions();
+        // Until it is transformed, a path without fill is written as found.
+        if (!options.isDefaultPathEncoding() || !(mRewritten || mStyle.isFillNone())) {
+            // Encoded only once here, so the precision isn't lost in the transform passes.
+            // The stages are built from the last one: the arcs are lowered first, so the
+            // simplifier sees the curves they become.
+            PathVisitor pipeline = new PathWriter(sb, options);
+            if (options.isOptimizePathCommands()) {
+                pipeline = new PathCommandOptimizer(options, pipeline);
+            }
+            if (options.getSimplifyTolerance() > 0) {
+                pipeline = new PathSimplifier(options.getSimplifyTolerance(), pipeline);
+            }
+            if (options.getArcTolerance() > 0) {
+                pipeline = new ArcLowerer(options.getArcTolerance(), pipeline);
+            }
+            try {
+                PathTokenizer.tokenize(mPathData, pipeline);
+            } catch (IllegalArgumentException ex) {
+                throw new RuntimeException("error in parsing \"" + mPathData + "\"", ex);
+            }
+            pathData = sb;
         }
-        writer.write("        android:pathData=\"" + mPathData + "\"");
-        writer.write(getAttributeValues(Svg2Vector.presentationMap));
+        writer.startTag("    ", "path");
+        writer.attribute("android:pathData", pathData);
+        mStyle.writeAttributes(writer, sb, options.isMinifyXml());
+        writer.endEmptyTag();
+    }
+
+    /**
+     * Start from the style inherited from the parent groups.
+     */
+    public void inheritStyle(PresentationStyle style) {
+        mStyle.copyFrom(style);
+    }
+
+    /**
+     * Apply the declarations of an inline "style" attribute.
+     */
+    public void applyStyle(String style) {
+        StyleParser.applyStyle(style, mStyle);
     }
 
     public void fillPresentationAttributes(String name, String value) {
-        logger.log(Level.FINE, ">>>> PROP " + name + " = " + value);
-//        if (value.startsWith("url("))  {
-//            getTree().logErrorLine("Unsupported URL value: " + value, getDocumentNode(),
-//                                   SvgTree.SvgLogLevel.ERROR);
-//            return;
-//        }
-        mVdAttributesMap.put(name, value);
+        PresentationAttribute attribute = PresentationAttribute.fromSvgName(name);
+        if (attribute != null) {
+            fillPresentationAttribute(attribute, value);
+        }
+    }
+
+    public void fillPresentationAttribute(PresentationAttribute attribute, String value) {
+        if (!mStyle.set(attribute, value)) {
+            ConversionListener listener = getTree().getContext().getConversionListener();
+            if (listener != null) {
+                listener.onUnsupportedValue(attribute.mSvgName, value, getLineNumber());
+            }
+        }
     }
 }
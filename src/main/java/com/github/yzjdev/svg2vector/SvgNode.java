@@ -16,10 +16,7 @@
 
 package com.github.yzjdev.svg2vector;
 
-import org.w3c.dom.Node;
-
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 
 /**
  * Parent class for a SVG file's node, can be either group or leave element.
@@ -29,13 +26,13 @@ abstract class SvgNode {
     protected String mName;
     // Keep a reference to the tree in order to dump the error log.
     private SvgTree mSvgTree;
-    // Use document node to get the line number for error reporting.
-    private Node mDocumentNode;
+    // Line number of the element in the source document, used for error reporting.
+    private int mLineNumber;
 
-    public SvgNode(SvgTree svgTree, Node node, String name) {
+    public SvgNode(SvgTree svgTree, int lineNumber, String name) {
         mName = name;
         mSvgTree = svgTree;
-        mDocumentNode = node;
+        mLineNumber = lineNumber;
     }
 
     protected SvgTree getTree() {
@@ -46,19 +43,19 @@ abstract class SvgNode {
         return mName;
     }
 
-    public Node getDocumentNode() {
-        return mDocumentNode;
+    public int getLineNumber() {
+        return mLineNumber;
     }
 
     /**
-     * dump the current node's debug info.
+     * dump the current node's debug info, one line per node.
      */
-    public abstract void dumpNode(String indent);
+    public abstract void dumpNode(StringBuilder sb, String indent);
 
     /**
      * Write the Node content into the VectorDrawable's XML file.
      */
-    public abstract void writeXML(OutputStreamWriter writer) throws IOException;
+    public abstract void writeXML(VectorDrawableOutput writer) throws IOException;
 
     /**
      * @return true the node is a group node.
@@ -69,4 +66,10 @@ abstract class SvgNode {
      * Transform the current Node with the transformation matrix.
      */
     public abstract void transform(float a, float b, float c, float d, float e, float f);
+
+    /**
+     * @return the bounds of the node's paths as {left, top, right, bottom}, or
+     *         null if it has none. The array must not be modified.
+     */
+    public abstract float[] getBounds();
 }
@@ -19,28 +19,23 @@ package com.github.yzjdev.svg2vector;
 //import com.android.ide.common.blame.SourcePosition;
 //import com.android.utils.PositionXmlParser;
 //import com.google.common.base.Strings;
-import org.w3c.dom.Document;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 
 /**
  * Represent the SVG file in an internal data structure as a tree.
  */
 class SvgTree {
-    private static Logger logger = Logger.getLogger(SvgTree.class.getSimpleName());
 
     public float w;
     public float h;
@@ -50,6 +45,7 @@ class SvgTree {
 
     private SvgGroupNode mRoot;
     private String mFileName;
+    private final ConverterContext mContext;
 
     private ArrayList<String> mErrorLines = new ArrayList<String>();
 
@@ -58,47 +54,67 @@ class SvgTree {
         WARNING
     }
 
+    public SvgTree(ConverterContext context) {
+        mContext = context;
+    }
+
+    public ConverterContext getContext() {
+        return mContext;
+    }
 
 
-    public Document parse(File file) throws Exception {
+    /**
+     * Stream the SVG file through the given handler. The file is never held
+     * in memory as a whole; the handler builds the tree as the events arrive.
+     */
+    public void parse(File file, ContentHandler handler) throws Exception {
         mFileName = file.getName();
         if (!file.exists() || file.length() == 0) {
             throw new IOException("文件不存在或为空: " + file.getAbsolutePath());
         }
 
-        String xmlContent = readFileToString(file);
-        if (xmlContent.trim().isEmpty()) {
-            throw new IOException("读取的文件内容为空");
+        long threshold = mContext.getMemoryMapThreshold();
+        if (threshold != ConverterContext.NO_MEMORY_MAP && file.length() >= threshold) {
+            parseMapped(file, handler);
+            return;
         }
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
+        InputStream is = new BufferedInputStream(new FileInputStream(file));
         try {
-            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        } catch (ParserConfigurationException e) {
-            // Android不支持该特性，忽略
+            parse(new InputSource(is), handler);
+        } finally {
+            is.close();
         }
-
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        InputSource inputSource = new InputSource(new StringReader(xmlContent));
-        return builder.parse(inputSource);
     }
 
-    private String readFileToString(File file) throws IOException {
+    /**
+     * Map the file into memory and let the parser read the mapped region
+     * directly, skipping the copies through a heap buffer.
+     */
+    private void parseMapped(File file, ContentHandler handler) throws Exception {
         FileInputStream fis = new FileInputStream(file);
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[4096];
-            int len;
-            while ((len = fis.read(buffer)) != -1) {
-                baos.write(buffer, 0, len);
-            }
-            return baos.toString("UTF-8"); // 根据文件编码修改
+            FileChannel channel = fis.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            parse(new InputSource(new ByteBufferInputStream(buffer)), handler);
         } finally {
             fis.close();
         }
     }
 
+    /**
+     * Stream the SVG document read from the given stream through the handler.
+     * The stream is not closed.
+     */
+    public void parse(InputStream is, ContentHandler handler) throws Exception {
+        parse(new InputSource(is), handler);
+    }
+
+    private void parse(InputSource inputSource, ContentHandler handler) throws Exception {
+        XMLReader reader = mContext.getSvgReader();
+        reader.setContentHandler(handler);
+        reader.parse(inputSource);
+    }
 
 //    public Document parse(File f) throws Exception {
 //        mFileName = f.getName();
@@ -106,24 +122,40 @@ class SvgTree {
 //        return doc;
 //    }
 
+    /**
+     * Move the paths into the viewport. The document's transformation and the
+     * viewBox offset are composed into one matrix, so every path is rewritten
+     * at most once, and not at all if nothing moves.
+     */
     public void normalize() {
+        float a = 1, b = 0, c = 0, d = 1, e = 0, f = 0;
         if (matrix != null) {
-            transform(matrix[0], matrix[1], matrix[2], matrix[3], matrix[4], matrix[5]);
+            a = matrix[0];
+            b = matrix[1];
+            c = matrix[2];
+            d = matrix[3];
+            e = matrix[4];
+            f = matrix[5];
         }
-
-        if (viewBox != null && (viewBox[0] != 0 || viewBox[1] != 0)) {
-            transform(1, 0, 0, 1, -viewBox[0], -viewBox[1]);
+        if (viewBox != null) {
+            // The offset is applied after the matrix.
+            e -= viewBox[0];
+            f -= viewBox[1];
+        }
+        if (a == 1 && b == 0 && c == 0 && d == 1 && e == 0 && f == 0) {
+            return;
         }
-        logger.log(Level.FINE, "matrix=" + Arrays.toString(matrix));
-    }
-
-    private void transform(float a, float b, float c, float d, float e, float f) {
         mRoot.transform(a, b, c, d, e, f);
     }
 
-    public void dump(SvgGroupNode root) {
-        logger.log(Level.FINE, "current file is :" + mFileName);
-        root.dumpNode("");
+    /**
+     * @return the debug info of the tree, built only when asked for.
+     */
+    public String dump(SvgGroupNode root) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("current file is :").append(mFileName).append('\n');
+        root.dumpNode(sb, "");
+        return sb.toString();
     }
 
     public void setRoot(SvgGroupNode root) {
@@ -135,6 +167,14 @@ class SvgTree {
         return mRoot;
     }
 
+    /**
+     * @return the bounds of all the paths, in viewport units, as {left, top,
+     *         right, bottom}, or null if there is no path
+     */
+    public float[] getBounds() {
+        return mRoot != null ? mRoot.getBounds() : null;
+    }
+
 //    public void logErrorLine(String s, Node node, SvgLogLevel level) {
 //        if (!Strings.isNullOrEmpty(s)) {
 //            if (node != null) {
@@ -8,19 +8,24 @@ class VdNodeRender {
 
     private static final String TAG = "VdNodeRender";
 
-    public static void createPath(VdPath.Node[] node, Path path) {
+    public static void createPath(PathData pathData, Path path) {
         float[] current = new float[6];
         char lastCmd = ' ';
-        for (VdPath.Node value : node) {
-            addCommand(path, current, value.type, lastCmd, value.params);
-            lastCmd = value.type;
+        float[] coords = pathData.getCoords();
+        int k = 0;
+        for (int i = 0; i < pathData.getSegmentCount(); i++) {
+            char cmd = pathData.getVerb(i);
+            addSegment(path, current, cmd, lastCmd, coords, k);
+            k += PathData.getArity(cmd);
+            lastCmd = cmd;
         }
     }
 
-    private static void addCommand(Path path, float[] current, char cmd,
-                                   char lastCmd, float[] val) {
-        int incr = 2;
-
+    /**
+     * Add one segment to the path, reading its coordinates from {@code val} at {@code k}.
+     */
+    private static void addSegment(Path path, float[] current, char cmd,
+                                   char lastCmd, float[] val, int k) {
         float cx = current[0];
         float cy = current[1];
         float cpx = current[2];
@@ -28,189 +33,149 @@ class VdNodeRender {
         float loopX = current[4];
         float loopY = current[5];
 
+        boolean reflectCtrl;
+        float tempReflectedX, tempReflectedY;
+
         switch (cmd) {
+            case 'm':
+                cx += val[k];
+                cy += val[k + 1];
+                path.moveTo(cx, cy);
+                loopX = cx;
+                loopY = cy;
+                break;
+            case 'M':
+                cx = val[k];
+                cy = val[k + 1];
+                path.moveTo(cx, cy);
+                loopX = cx;
+                loopY = cy;
+                break;
+            case 'l':
+                cx += val[k];
+                cy += val[k + 1];
+                path.lineTo(cx, cy);
+                break;
+            case 'L':
+                cx = val[k];
+                cy = val[k + 1];
+                path.lineTo(cx, cy);
+                break;
             case 'z':
             case 'Z':
                 path.close();
                 cx = loopX;
                 cy = loopY;
                 break;
-            case 'm':
-            case 'M':
-            case 'l':
-            case 'L':
-            case 't':
-            case 'T':
-                incr = 2;
-                break;
             case 'h':
+                cx += val[k];
+                path.lineTo(cx, cy);
+                break;
             case 'H':
+                cx = val[k];
+                path.lineTo(cx, cy);
+                break;
             case 'v':
+                cy += val[k];
+                path.lineTo(cx, cy);
+                break;
             case 'V':
-                incr = 1;
+                cy = val[k];
+                path.lineTo(cx, cy);
                 break;
             case 'c':
+                path.cubicTo(cx + val[k], cy + val[k + 1],
+                        cx + val[k + 2], cy + val[k + 3],
+                        cx + val[k + 4], cy + val[k + 5]);
+                cpx = cx + val[k + 2];
+                cpy = cy + val[k + 3];
+                cx += val[k + 4];
+                cy += val[k + 5];
+                break;
             case 'C':
-                incr = 6;
+                path.cubicTo(val[k], val[k + 1],
+                        val[k + 2], val[k + 3],
+                        val[k + 4], val[k + 5]);
+                cpx = val[k + 2];
+                cpy = val[k + 3];
+                cx = val[k + 4];
+                cy = val[k + 5];
                 break;
             case 's':
+                reflectCtrl = lastCmd == 'c' || lastCmd == 's' || lastCmd == 'C' || lastCmd == 'S';
+                float ctrl1X = reflectCtrl ? 2 * cx - cpx : cx;
+                float ctrl1Y = reflectCtrl ? 2 * cy - cpy : cy;
+                path.cubicTo(ctrl1X, ctrl1Y,
+                        cx + val[k], cy + val[k + 1],
+                        cx + val[k + 2], cy + val[k + 3]);
+                cpx = cx + val[k];
+                cpy = cy + val[k + 1];
+                cx += val[k + 2];
+                cy += val[k + 3];
+                break;
             case 'S':
+                reflectCtrl = lastCmd == 'c' || lastCmd == 's' || lastCmd == 'C' || lastCmd == 'S';
+                ctrl1X = reflectCtrl ? 2 * cx - cpx : cx;
+                ctrl1Y = reflectCtrl ? 2 * cy - cpy : cy;
+                path.cubicTo(ctrl1X, ctrl1Y,
+                        val[k], val[k + 1],
+                        val[k + 2], val[k + 3]);
+                cpx = val[k];
+                cpy = val[k + 1];
+                cx = val[k + 2];
+                cy = val[k + 3];
+                break;
             case 'q':
+                path.quadTo(cx + val[k], cy + val[k + 1],
+                        cx + val[k + 2], cy + val[k + 3]);
+                cpx = cx + val[k];
+                cpy = cy + val[k + 1];
+                cx += val[k + 2];
+                cy += val[k + 3];
+                break;
             case 'Q':
-                incr = 4;
+                path.quadTo(val[k], val[k + 1], val[k + 2], val[k + 3]);
+                cpx = val[k];
+                cpy = val[k + 1];
+                cx = val[k + 2];
+                cy = val[k + 3];
+                break;
+            case 't':
+                reflectCtrl = lastCmd == 'q' || lastCmd == 't' || lastCmd == 'Q' || lastCmd == 'T';
+                tempReflectedX = reflectCtrl ? 2 * cx - cpx : cx;
+                tempReflectedY = reflectCtrl ? 2 * cy - cpy : cy;
+                path.quadTo(tempReflectedX, tempReflectedY, cx + val[k], cy + val[k + 1]);
+                cpx = tempReflectedX;
+                cpy = tempReflectedY;
+                cx += val[k];
+                cy += val[k + 1];
+                break;
+            case 'T':
+                reflectCtrl = lastCmd == 'q' || lastCmd == 't' || lastCmd == 'Q' || lastCmd == 'T';
+                tempReflectedX = reflectCtrl ? 2 * cx - cpx : cx;
+                tempReflectedY = reflectCtrl ? 2 * cy - cpy : cy;
+                path.quadTo(tempReflectedX, tempReflectedY, val[k], val[k + 1]);
+                cpx = tempReflectedX;
+                cpy = tempReflectedY;
+                cx = val[k];
+                cy = val[k + 1];
                 break;
             case 'a':
+                drawArc(path, cx, cy,
+                        val[k], val[k + 1], val[k + 2],
+                        val[k + 3] != 0, val[k + 4] != 0,
+                        cx + val[k + 5], cy + val[k + 6]);
+                cx += val[k + 5];
+                cy += val[k + 6];
+                break;
             case 'A':
-                incr = 7;
-        }
-
-        for (int k = 0; k < val.length; k += incr) {
-            boolean reflectCtrl;
-            float tempReflectedX, tempReflectedY;
-
-            switch (cmd) {
-                case 'm':
-                    cx += val[k];
-                    cy += val[k + 1];
-                    path.moveTo(cx, cy);
-                    loopX = cx;
-                    loopY = cy;
-                    break;
-                case 'M':
-                    cx = val[k];
-                    cy = val[k + 1];
-                    path.moveTo(cx, cy);
-                    loopX = cx;
-                    loopY = cy;
-                    break;
-                case 'l':
-                    cx += val[k];
-                    cy += val[k + 1];
-                    path.lineTo(cx, cy);
-                    break;
-                case 'L':
-                    cx = val[k];
-                    cy = val[k + 1];
-                    path.lineTo(cx, cy);
-                    break;
-                case 'z':
-                case 'Z':
-                    path.close();
-                    cx = loopX;
-                    cy = loopY;
-                    break;
-                case 'h':
-                    cx += val[k];
-                    path.lineTo(cx, cy);
-                    break;
-                case 'H':
-                    cx = val[k];
-                    path.lineTo(cx, cy);
-                    break;
-                case 'v':
-                    cy += val[k];
-                    path.lineTo(cx, cy);
-                    break;
-                case 'V':
-                    cy = val[k];
-                    path.lineTo(cx, cy);
-                    break;
-                case 'c':
-                    path.cubicTo(cx + val[k], cy + val[k + 1],
-                            cx + val[k + 2], cy + val[k + 3],
-                            cx + val[k + 4], cy + val[k + 5]);
-                    cpx = cx + val[k + 2];
-                    cpy = cy + val[k + 3];
-                    cx += val[k + 4];
-                    cy += val[k + 5];
-                    break;
-                case 'C':
-                    path.cubicTo(val[k], val[k + 1],
-                            val[k + 2], val[k + 3],
-                            val[k + 4], val[k + 5]);
-                    cpx = val[k + 2];
-                    cpy = val[k + 3];
-                    cx = val[k + 4];
-                    cy = val[k + 5];
-                    break;
-                case 's':
-                    reflectCtrl = lastCmd == 'c' || lastCmd == 's' || lastCmd == 'C' || lastCmd == 'S';
-                    float ctrl1X = reflectCtrl ? 2 * cx - cpx : cx;
-                    float ctrl1Y = reflectCtrl ? 2 * cy - cpy : cy;
-                    path.cubicTo(ctrl1X, ctrl1Y,
-                            cx + val[k], cy + val[k + 1],
-                            cx + val[k + 2], cy + val[k + 3]);
-                    cpx = cx + val[k];
-                    cpy = cy + val[k + 1];
-                    cx += val[k + 2];
-                    cy += val[k + 3];
-                    break;
-                case 'S':
-                    reflectCtrl = lastCmd == 'c' || lastCmd == 's' || lastCmd == 'C' || lastCmd == 'S';
-                    ctrl1X = reflectCtrl ? 2 * cx - cpx : cx;
-                    ctrl1Y = reflectCtrl ? 2 * cy - cpy : cy;
-                    path.cubicTo(ctrl1X, ctrl1Y,
-                            val[k], val[k + 1],
-                            val[k + 2], val[k + 3]);
-                    cpx = val[k];
-                    cpy = val[k + 1];
-                    cx = val[k + 2];
-                    cy = val[k + 3];
-                    break;
-                case 'q':
-                    path.quadTo(cx + val[k], cy + val[k + 1],
-                            cx + val[k + 2], cy + val[k + 3]);
-                    cpx = cx + val[k];
-                    cpy = cy + val[k + 1];
-                    cx += val[k + 2];
-                    cy += val[k + 3];
-                    break;
-                case 'Q':
-                    path.quadTo(val[k], val[k + 1], val[k + 2], val[k + 3]);
-                    cpx = val[k];
-                    cpy = val[k + 1];
-                    cx = val[k + 2];
-                    cy = val[k + 3];
-                    break;
-                case 't':
-                    reflectCtrl = lastCmd == 'q' || lastCmd == 't' || lastCmd == 'Q' || lastCmd == 'T';
-                    tempReflectedX = reflectCtrl ? 2 * cx - cpx : cx;
-                    tempReflectedY = reflectCtrl ? 2 * cy - cpy : cy;
-                    path.quadTo(tempReflectedX, tempReflectedY, cx + val[k], cy + val[k + 1]);
-                    cpx = tempReflectedX;
-                    cpy = tempReflectedY;
-                    cx += val[k];
-                    cy += val[k + 1];
-                    break;
-                case 'T':
-                    reflectCtrl = lastCmd == 'q' || lastCmd == 't' || lastCmd == 'Q' || lastCmd == 'T';
-                    tempReflectedX = reflectCtrl ? 2 * cx - cpx : cx;
-                    tempReflectedY = reflectCtrl ? 2 * cy - cpy : cy;
-                    path.quadTo(tempReflectedX, tempReflectedY, val[k], val[k + 1]);
-                    cpx = tempReflectedX;
-                    cpy = tempReflectedY;
-                    cx = val[k];
-                    cy = val[k + 1];
-                    break;
-                case 'a':
-                    drawArc(path, cx, cy,
-                            val[k], val[k + 1], val[k + 2],
-                            val[k + 3] != 0, val[k + 4] != 0,
-                            cx + val[k + 5], cy + val[k + 6]);
-                    cx += val[k + 5];
-                    cy += val[k + 6];
-                    break;
-                case 'A':
-                    drawArc(path, cx, cy,
-                            val[k], val[k + 1], val[k + 2],
-                            val[k + 3] != 0, val[k + 4] != 0,
-                            val[k + 5], val[k + 6]);
-                    cx = val[k + 5];
-                    cy = val[k + 6];
-                    break;
-            }
-
-            lastCmd = cmd;
+                drawArc(path, cx, cy,
+                        val[k], val[k + 1], val[k + 2],
+                        val[k + 3] != 0, val[k + 4] != 0,
+                        val[k + 5], val[k + 6]);
+                cx = val[k + 5];
+                cy = val[k + 6];
+                break;
         }
 
         current[0] = cx;
@@ -221,117 +186,27 @@ class VdNodeRender {
         current[5] = loopY;
     }
 
-    private static void drawArc(Path path,
+    private static void drawArc(final Path path,
                                 float cx, float cy, float rx, float ry,
                                 float angle, boolean largeArc, boolean sweep,
                                 float x, float y) {
+        ArcConverter.toCubics(cx, cy, rx, ry, angle, largeArc, sweep, x, y, 0, new PathVisitor() {
+            @Override
+            public void segment(char verb, float[] coords, int offset) {
+                if (verb == 'L') {
+                    path.lineTo(coords[offset], coords[offset + 1]);
+                } else {
+                    path.cubicTo(coords[offset], coords[offset + 1], coords[offset + 2],
+                            coords[offset + 3], coords[offset + 4], coords[offset + 5]);
+                }
+            }
 
-        if (rx == 0 || ry == 0) {
-            path.lineTo(x, y);
-            return;
-        }
-
-        double radAngle = Math.toRadians(angle % 360.0);
-        double cosAngle = Math.cos(radAngle);
-        double sinAngle = Math.sin(radAngle);
-
-        double dx2 = (cx - x) / 2.0;
-        double dy2 = (cy - y) / 2.0;
-
-        double x1 = cosAngle * dx2 + sinAngle * dy2;
-        double y1 = -sinAngle * dx2 + cosAngle * dy2;
-
-        double rxSq = rx * rx;
-        double rySq = ry * ry;
-        double x1Sq = x1 * x1;
-        double y1Sq = y1 * y1;
-
-        double radiiCheck = x1Sq / rxSq + y1Sq / rySq;
-        if (radiiCheck > 1) {
-            rx *= Math.sqrt(radiiCheck);
-            ry *= Math.sqrt(radiiCheck);
-            rxSq = rx * rx;
-            rySq = ry * ry;
-        }
-
-        double sign = (largeArc == sweep) ? -1 : 1;
-        double sq = ((rxSq * rySq) - (rxSq * y1Sq) - (rySq * x1Sq)) /
-                ((rxSq * y1Sq) + (rySq * x1Sq));
-        sq = (sq < 0) ? 0 : sq;
-        double coef = sign * Math.sqrt(sq);
-        double cx1 = coef * ((rx * y1) / ry);
-        double cy1 = coef * -((ry * x1) / rx);
-
-        double centerX = cosAngle * cx1 - sinAngle * cy1 + (cx + x) / 2.0;
-        double centerY = sinAngle * cx1 + cosAngle * cy1 + (cy + y) / 2.0;
-
-        double ux = (x1 - cx1) / rx;
-        double uy = (y1 - cy1) / ry;
-        double vx = (-x1 - cx1) / rx;
-        double vy = (-y1 - cy1) / ry;
-
-        double startAngle = Math.toDegrees(Math.atan2(uy, ux));
-        double sweepAngle = Math.toDegrees(Math.atan2(vy, vx)) - startAngle;
-        if (!sweep && sweepAngle > 0) {
-            sweepAngle -= 360.0;
-        } else if (sweep && sweepAngle < 0) {
-            sweepAngle += 360.0;
-        }
-        sweepAngle = Math.max(-360.0, Math.min(360.0, sweepAngle));
-
-        arcToBezier(path, centerX, centerY, rx, ry, radAngle, startAngle, sweepAngle);
-    }
-
-
-    private static void arcToBezier(Path path,
-                                    double cx, double cy, double rx, double ry,
-                                    double theta, double startAngle, double sweepAngle) {
-
-        int numSegments = (int) Math.ceil(Math.abs(sweepAngle) / 90.0);
-        double eta = Math.toRadians(sweepAngle / numSegments);
-        double cosTheta = Math.cos(theta);
-        double sinTheta = Math.sin(theta);
-        double angle = Math.toRadians(startAngle);
-
-        double prevX = cx + rx * Math.cos(angle) * cosTheta - ry * Math.sin(angle) * sinTheta;
-        double prevY = cy + rx * Math.cos(angle) * sinTheta + ry * Math.sin(angle) * cosTheta;
-
-        for (int i = 0; i < numSegments; i++) {
-            double nextAngle = angle + eta;
-            double cosAngle = Math.cos(angle);
-            double sinAngle = Math.sin(angle);
-            double cosNext = Math.cos(nextAngle);
-            double sinNext = Math.sin(nextAngle);
-
-            double alpha = Math.tan(eta / 2.0);
-            double factor = (4.0 / 3.0) * alpha / (1 + Math.cos(eta / 2.0));
-
-            double x1 = prevX;
-            double y1 = prevY;
-
-            double dx1 = rx * (-sinAngle) * factor;
-            double dy1 = ry * cosAngle * factor;
-
-            double dx2 = rx * (-sinNext) * factor;
-            double dy2 = ry * cosNext * factor;
-
-            double x2 = cx + (rx * cosNext) * cosTheta - (ry * sinNext) * sinTheta;
-            double y2 = cy + (rx * cosNext) * sinTheta + (ry * sinNext) * cosTheta;
-
-            float c1x = (float) (x1 + dx1 * cosTheta - dy1 * sinTheta);
-            float c1y = (float) (y1 + dx1 * sinTheta + dy1 * cosTheta);
-            float c2x = (float) (x2 + dx2 * cosTheta - dy2 * sinTheta);
-            float c2y = (float) (y2 + dx2 * sinTheta + dy2 * cosTheta);
-
-            path.cubicTo(c1x, c1y, c2x, c2y, (float) x2, (float) y2);
-
-            angle = nextAngle;
-            prevX = x2;
-            prevY = y2;
-        }
+            @Override
+            public void end() {
+            }
+        });
     }
 
-
 }
 
 
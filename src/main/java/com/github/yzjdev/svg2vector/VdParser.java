@@ -25,16 +25,10 @@ import org.xml.sax.XMLReader;
 
 import java.io.InputStream;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 /**
  * Parse a VectorDrawble's XML file, and generate an internal tree representation,
@@ -115,9 +109,7 @@ class VdParser {
     public VdTree parse(InputStream is, StringBuilder vdErrorLog) {
         try {
             final VdTree tree = new VdTree();
-            SAXParserFactory spf = SAXParserFactory.newInstance();
-            SAXParser sp = spf.newSAXParser();
-            XMLReader xr = sp.getXMLReader();
+            XMLReader xr = mContext.getVdReader();
 
             xr.setContentHandler(new ContentHandler() {
                 String space = " ";
@@ -182,213 +174,51 @@ class VdParser {
         }
     }
 
-    public VdParser() {
-    }
-
-    private static int nextStart(String s, int end) {
-        char c;
-
-        while (end < s.length()) {
-            c = s.charAt(end);
-            // Note that 'e' or 'E' are not valid path commands, but could be
-            // used for floating point numbers' scientific notation.
-            // Therefore, when searching for next command, we should ignore 'e'
-            // and 'E'.
-            if ((((c - 'A') * (c - 'Z') <= 0) || ((c - 'a') * (c - 'z') <= 0))
-                    && c != 'e' && c != 'E') {
-                return end;
-            }
-            end++;
-        }
-        return end;
-    }
-
-    public static VdPath.Node[] parsePath(String value) {
-        int start = 0;
-        int end = 1;
-
-        ArrayList<VdPath.Node> list = new ArrayList<VdPath.Node>();
-        while (end < value.length()) {
-            end = nextStart(value, end);
-            String s = value.substring(start, end);
-            float[] val = getFloats(s);
-
-            addNode(list, s.charAt(0), val);
-
-            start = end;
-            end++;
-        }
-        if ((end - start) == 1 && start < value.length()) {
-
-            addNode(list, value.charAt(start), new float[0]);
-        }
-        return list.toArray(new VdPath.Node[list.size()]);
-    }
-
-    private static class ExtractFloatResult {
-        // We need to return the position of the next separator and whether the
-        // next float starts with a '-' or a '.'.
-        int mEndPosition;
-        boolean mEndWithNegOrDot;
-    }
+    private final ConverterContext mContext;
 
-    /**
-     * Copies elements from {@code original} into a new array, from indexes start (inclusive) to
-     * end (exclusive). The original order of elements is preserved.
-     * If {@code end} is greater than {@code original.length}, the result is padded
-     * with the value {@code 0.0f}.
-     *
-     * @param original the original array
-     * @param start the start index, inclusive
-     * @param end the end index, exclusive
-     * @return the new array
-     * @throws ArrayIndexOutOfBoundsException if {@code start < 0 || start > original.length}
-     * @throws IllegalArgumentException if {@code start > end}
-     * @throws NullPointerException if {@code original == null}
-     */
-    private static float[] copyOfRange(float[] original, int start, int end) {
-        if (start > end) {
-            throw new IllegalArgumentException();
-        }
-        int originalLength = original.length;
-        if (start < 0 || start > originalLength) {
-            throw new ArrayIndexOutOfBoundsException();
-        }
-        int resultLength = end - start;
-        int copyLength = Math.min(resultLength, originalLength - start);
-        float[] result = new float[resultLength];
-        System.arraycopy(original, start, result, 0, copyLength);
-        return result;
+    public VdParser() {
+        this(new ConverterContext());
     }
 
     /**
-     * Calculate the position of the next comma or space or negative sign
-     * @param s the string to search
-     * @param start the position to start searching
-     * @param result the result of the extraction, including the position of the
-     * the starting position of next number, whether it is ending with a '-'.
+     * @param context the reader and buffers to reuse across parses, see {@link ConverterContext}
      */
-    private static void extract(String s, int start, ExtractFloatResult result) {
-        // Now looking for ' ', ',', '.' or '-' from the start.
-        int currentIndex = start;
-        boolean foundSeparator = false;
-        result.mEndWithNegOrDot = false;
-        boolean secondDot = false;
-        boolean isExponential = false;
-        for (; currentIndex < s.length(); currentIndex++) {
-            boolean isPrevExponential = isExponential;
-            isExponential = false;
-            char currentChar = s.charAt(currentIndex);
-            switch (currentChar) {
-                case ' ':
-                case ',':
-                    foundSeparator = true;
-                    break;
-                case '-':
-                    // The negative sign following a 'e' or 'E' is not a separator.
-                    if (currentIndex != start && !isPrevExponential) {
-                        foundSeparator = true;
-                        result.mEndWithNegOrDot = true;
-                    }
-                    break;
-                case '.':
-                    if (!secondDot) {
-                        secondDot = true;
-                    } else {
-                        // This is the second dot, and it is considered as a separator.
-                        foundSeparator = true;
-                        result.mEndWithNegOrDot = true;
-                    }
-                    break;
-                case 'e':
-                case 'E':
-                    isExponential = true;
-                    break;
-            }
-            if (foundSeparator) {
-                break;
-            }
-        }
-        // When there is nothing found, then we put the end position to the end
-        // of the string.
-        result.mEndPosition = currentIndex;
+    public VdParser(ConverterContext context) {
+        mContext = context;
     }
 
     /**
-     * parse the floats in the string this is an optimized version of parseFloat(s.split(",|\\s"));
-     *
-     * @param s the string containing a command and list of floats
-     * @return array of floats
+     * Parse the path data into segments.
      */
-    private static float[] getFloats(String s) {
-        if (s.charAt(0) == 'z' || s.charAt(0) == 'Z') {
-            return new float[0];
-        }
+    public static PathData parsePath(String value) {
+        // Roughly one segment per 8 characters for typical path data.
+        PathData pathData = new PathData(value.length() / 8);
         try {
-            float[] results = new float[s.length()];
-            int count = 0;
-            int startPosition = 1;
-            int endPosition = 0;
-
-            ExtractFloatResult result = new ExtractFloatResult();
-            int totalLength = s.length();
-
-            // The startPosition should always be the first character of the
-            // current number, and endPosition is the character after the current
-            // number.
-            while (startPosition < totalLength) {
-                extract(s, startPosition, result);
-                endPosition = result.mEndPosition;
-
-                if (startPosition < endPosition) {
-                    results[count++] = Float.parseFloat(
-                            s.substring(startPosition, endPosition));
-                }
-
-                if (result.mEndWithNegOrDot) {
-                    // Keep the '-' or '.' sign with next number.
-                    startPosition = endPosition;
-                } else {
-                    startPosition = endPosition + 1;
-                }
-            }
-            return copyOfRange(results, 0, count);
-        } catch (NumberFormatException e) {
-            throw new RuntimeException("error in parsing \"" + s + "\"", e);
+            PathTokenizer.tokenize(value, pathData);
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException.
+            throw new RuntimeException("error in parsing \"" + value + "\"", e);
         }
+        return pathData;
     }
     // End of copy from PathParser.java
     ////////////////////////////////////////////////////////////////
-    private static void addNode(ArrayList<VdPath.Node> list, char cmd, float[] val) {
-        list.add(new VdPath.Node(cmd, val));
-    }
-
     public VdTree parse(URL r, StringBuilder vdErrorLog) throws Exception {
         return parse(r.openStream(), vdErrorLog);
     }
 
     private void parseSize(VdTree vdTree, Attributes attributes) {
 
-        Pattern pattern = Pattern.compile("^\\s*(\\d+(\\.\\d+)*)\\s*([a-zA-Z]+)\\s*$");
-        HashMap<String, Integer> m = new HashMap<String, Integer>();
-        m.put(SdkConstants.UNIT_PX, 1);
-        m.put(SdkConstants.UNIT_DIP, 1);
-        m.put(SdkConstants.UNIT_DP, 1);
-        m.put(SdkConstants.UNIT_SP, 1);
-        m.put(SdkConstants.UNIT_PT, 1);
-        m.put(SdkConstants.UNIT_IN, 1);
-        m.put(SdkConstants.UNIT_MM, 1);
         int len = attributes.getLength();
 
         for (int i = 0; i < len; i++) {
             String name = attributes.getQName(i);
             String value = attributes.getValue(i);
-            Matcher matcher = pattern.matcher(value);
+            Matcher matcher = mContext.sizeMatcher(value);
             float size = 0;
             if (matcher.matches()) {
-                float v = Float.parseFloat(matcher.group(1));
-                String unit = matcher.group(3).toLowerCase(Locale.getDefault());
-                size = v;
+                // All the units are treated the same for preview.
+                size = Float.parseFloat(matcher.group(1));
             }
             // -- Extract dimension units.
 
@@ -416,7 +246,9 @@ class VdParser {
         for (int i = 0; i < len; i++) {
             String name = attributes.getQName(i);
             String value = attributes.getValue(i);
-            logger.log(Level.FINE, "name " + name + "value " + value);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "name " + name + "value " + value);
+            }
             setNameValue(vgPath, name, value);
         }
         return vgPath;
@@ -429,14 +261,16 @@ class VdParser {
         for (int i = 0; i < len; i++) {
             String name = attributes.getQName(i);
             String value = attributes.getValue(i);
-            logger.log(Level.FINE, "name " + name + "value " + value);
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "name " + name + "value " + value);
+            }
         }
         return vgGroup;
     }
 
     public void setNameValue(VdPath vgPath, String name, String value) {
         if (PATH_DESCRIPTION.equals(name)) {
-            vgPath.mNode = parsePath(value);
+            vgPath.mPathData = parsePath(value);
         } else if (PATH_ID.equals(name)) {
             vgPath.mName = value;
         } else if (PATH_FILL.equals(name)) {
@@ -500,7 +334,9 @@ class VdParser {
         } else if (PATH_STROKE_MITERLIMIT.equals(name)) {
             vgPath.mStrokeMiterlimit = Float.parseFloat(value);
         } else {
-            logger.log(Level.FINE, ">>>>>> DID NOT UNDERSTAND ! \"" + name + "\" <<<<");
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, ">>>>>> DID NOT UNDERSTAND ! \"" + name + "\" <<<<");
+            }
         }
 
     }
@@ -536,7 +372,9 @@ class VdParser {
                 return 0xFF000000;
         }
 
-        logger.log(Level.FINE, "color = " + value + " = " + Integer.toHexString(ret));
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "color = " + value + " = " + Integer.toHexString(ret));
+        }
         return ret;
     }
 }
@@ -46,6 +46,35 @@ public class VdTree {
         return mBaseHeight;
     }
 
+    /**
+     * Get the exact bounds of all the paths, in viewport units, without
+     * drawing them.
+     *
+     * @return false if there is no path, and the bounds are left as they are
+     */
+    public boolean getBounds(RectF out) {
+        if (mChildren == null) {
+            return false;
+        }
+        boolean found = false;
+        for (int i = 0; i < mChildren.size(); i++) {
+            VdElement element = mChildren.get(i);
+            float[] bounds = element instanceof VdPath ? ((VdPath) element).getBounds() : null;
+            if (bounds == null) {
+                continue;
+            }
+            if (found) {
+                out.union(bounds[PathBounds.LEFT], bounds[PathBounds.TOP],
+                        bounds[PathBounds.RIGHT], bounds[PathBounds.BOTTOM]);
+            } else {
+                out.set(bounds[PathBounds.LEFT], bounds[PathBounds.TOP],
+                        bounds[PathBounds.RIGHT], bounds[PathBounds.BOTTOM]);
+                found = true;
+            }
+        }
+        return found;
+    }
+
     // Internal drawing method for all elements
     private void drawInternal(Canvas canvas, int w, int h) {
         float scaleX = w / mPortWidth;
@@ -62,8 +91,10 @@ public class VdTree {
         Rect bounds = null;
         for (int i = 0; i < mChildren.size(); i++) {
             VdPath path = (VdPath) mChildren.get(i);
-            logger.log(Level.FINE, "mCurrentPaths[" + i + "]=" + path.getName() +
-                    Integer.toHexString(path.mFillColor));
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "mCurrentPaths[" + i + "]=" + path.getName() +
+                        Integer.toHexString(path.mFillColor));
+            }
             if (mChildren.get(i) != null) {
                 Rect r = drawPath(path, canvas, w, h, minScale);
                 if (bounds == null) {
@@ -74,8 +105,10 @@ public class VdTree {
             }
         }
 
-        logger.log(Level.FINE, "Rectangle " + bounds);
-        logger.log(Level.FINE, "Port  " + mPortWidth + "," + mPortHeight);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "Rectangle " + bounds);
+            logger.log(Level.FINE, "Port  " + mPortWidth + "," + mPortHeight);
+        }
     }
 
     // Draw a single path into the canvas
@@ -114,9 +147,12 @@ public class VdTree {
         canvas.concat(matrix);
 
         // Return the bounds of the drawn path
-        RectF bounds = new RectF();
-        path2d.computeBounds(bounds, true);
-        return new Rect((int) bounds.left, (int) bounds.top, (int) bounds.right, (int) bounds.bottom);
+        float[] bounds = path.getBounds();
+        if (bounds == null) {
+            return new Rect();
+        }
+        return new Rect((int) bounds[PathBounds.LEFT], (int) bounds[PathBounds.TOP],
+                (int) bounds[PathBounds.RIGHT], (int) bounds[PathBounds.BOTTOM]);
     }
 
     // Draw the VdTree into an image
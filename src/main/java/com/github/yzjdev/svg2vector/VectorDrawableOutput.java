@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+import java.io.IOException;
+
+/**
+ * Where the converted tree writes the VectorDrawable: the text XML of
+ * {@link VectorDrawableWriter}, or the compiled binary XML of
+ * {@link BinaryXmlWriter}. The calls follow the text form of the document,
+ * one element at a time.
+ */
+interface VectorDrawableOutput {
+    /**
+     * Start an element, which takes the attributes up to {@link #endStartTag()}
+     * or {@link #endEmptyTag()}.
+     *
+     * @param indent the indent of the tag in the text form
+     */
+    void startTag(String indent, String name) throws IOException;
+
+    /**
+     * Declare a namespace on the element just started.
+     */
+    void namespace(String prefix, String uri) throws IOException;
+
+    /**
+     * Add an attribute to the element just started.
+     *
+     * @param name the qualified name, as "android:pathData"
+     */
+    void attribute(String name, CharSequence value) throws IOException;
+
+    /**
+     * End the start tag, for an element with children.
+     */
+    void endStartTag() throws IOException;
+
+    /**
+     * End the tag of an element without children.
+     */
+    void endEmptyTag() throws IOException;
+
+    void endTag(String indent, String name) throws IOException;
+
+    /**
+     * Write what is pending and flush the stream, which is left open.
+     */
+    void flush() throws IOException;
+}
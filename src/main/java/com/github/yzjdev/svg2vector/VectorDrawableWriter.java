@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2015 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.yzjdev.svg2vector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the VectorDrawable XML as UTF-8 into an internal buffer, which is
+ * written to the stream when it is full and on {@link #flush()}. The values
+ * are escaped and encoded as they are copied, without building any String.
+ * <p>
+ * In the minified mode, the tags are written without any indent or line
+ * break, and the attributes are separated by a single space.
+ * <p>
+ * The stream belongs to the caller, it is never closed here.
+ */
+final class VectorDrawableWriter implements VectorDrawableOutput {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String ATTRIBUTE_INDENT = "\n        ";
+
+    private final OutputStream mOut;
+    private final boolean mMinified;
+    private final byte[] mBuffer = new byte[BUFFER_SIZE];
+    private int mCount;
+
+    VectorDrawableWriter(OutputStream out) {
+        this(out, false);
+    }
+
+    VectorDrawableWriter(OutputStream out, boolean minified) {
+        mOut = out;
+        mMinified = minified;
+    }
+
+    /**
+     * Write the start of an element's tag, up to its name.
+     */
+    @Override
+    public void startTag(String indent, String name) throws IOException {
+        if (!mMinified) {
+            write(indent);
+        }
+        write('<');
+        write(name);
+    }
+
+    /**
+     * Write the namespace declaration on the same line as the tag.
+     */
+    @Override
+    public void namespace(String prefix, String uri) throws IOException {
+        write(" xmlns:");
+        write(prefix);
+        write('=');
+        write('"');
+        writeEscaped(uri, 0, uri.length());
+        write('"');
+    }
+
+    /**
+     * Write an attribute on its own line, or after a space when minified,
+     * with the value escaped.
+     */
+    @Override
+    public void attribute(String name, CharSequence value) throws IOException {
+        if (mMinified) {
+            write(' ');
+        } else {
+            write(ATTRIBUTE_INDENT);
+        }
+        write(name);
+        write('=');
+        write('"');
+        writeEscaped(value, 0, value.length());
+        write('"');
+    }
+
+    /**
+     * Write the end of a start tag, for an element with children.
+     */
+    @Override
+    public void endStartTag() throws IOException {
+        write('>');
+        endLine();
+    }
+
+    /**
+     * Write the end of the tag of an element without children.
+     */
+    @Override
+    public void endEmptyTag() throws IOException {
+        write('/');
+        write('>');
+        endLine();
+    }
+
+    @Override
+    public void endTag(String indent, String name) throws IOException {
+        if (!mMinified) {
+            write(indent);
+        }
+        write('<');
+        write('/');
+        write(name);
+        write('>');
+        endLine();
+    }
+
+    /**
+     * Write the text as is, it must be valid XML.
+     */
+    void write(CharSequence s) throws IOException {
+        write(s, 0, s.length(), false);
+    }
+
+    void writeEscaped(CharSequence s, int start, int end) throws IOException {
+        write(s, start, end, true);
+    }
+
+    /**
+     * Write the buffered bytes and flush the stream, which is left open.
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        mOut.flush();
+    }
+
+    private void write(CharSequence s, int start, int end, boolean escape) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (escape) {
+                    String entity = entity(c);
+                    if (entity != null) {
+                        write(entity);
+                        continue;
+                    }
+                }
+                write(c);
+            } else if (c < 0x800) {
+                ensureRoom(2);
+                mBuffer[mCount++] = (byte) (0xC0 | (c >> 6));
+                mBuffer[mCount++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                ensureRoom(4);
+                mBuffer[mCount++] = (byte) (0xF0 | (codePoint >> 18));
+                mBuffer[mCount++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                mBuffer[mCount++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                mBuffer[mCount++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Not a valid pair, so it can't be encoded.
+                write('?');
+            } else {
+                ensureRoom(3);
+                mBuffer[mCount++] = (byte) (0xE0 | (c >> 12));
+                mBuffer[mCount++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                mBuffer[mCount++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * @return the entity for the character in an attribute value, or null if
+     *         it can be written as is. The whitespace is escaped so the parser
+     *         doesn't normalize it into spaces.
+     */
+    private static String entity(char c) {
+        switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '"':
+                return "&quot;";
+            case '\n':
+                return "&#10;";
+            case '\r':
+                return "&#13;";
+            case '\t':
+                return "&#9;";
+            default:
+                return null;
+        }
+    }
+
+    private void endLine() throws IOException {
+        if (!mMinified) {
+            write('\n');
+        }
+    }
+
+    /**
+     * Write an ASCII character.
+     */
+    private void write(char c) throws IOException {
+        if (mCount == mBuffer.length) {
+            flushBuffer();
+        }
+        mBuffer[mCount++] = (byte) c;
+    }
+
+    private void ensureRoom(int length) throws IOException {
+        if (mCount + length > mBuffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (mCount > 0) {
+            mOut.write(mBuffer, 0, mCount);
+            mCount = 0;
+        }
+    }
+}
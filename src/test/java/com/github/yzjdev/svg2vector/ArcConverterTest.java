@@ -0,0 +1,95 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ArcConverterTest {
+    private static String lower(String pathData, float tolerance) {
+        StringBuilder sb = new StringBuilder();
+        PathTokenizer.tokenize(pathData, new ArcLowerer(tolerance, new PathWriter(sb)));
+        return sb.toString();
+    }
+
+    @Test
+    public void splitsIntoQuarterTurns() {
+        assertEquals(1, ArcConverter.segmentCount(1, 90, 0));
+        assertEquals(4, ArcConverter.segmentCount(1, -360, 0));
+        assertEquals(4, ArcConverter.segmentCount(1, 360, 0.01f));
+        // The error of a quarter turn is about 2.7e-4 of the radius.
+        assertEquals(4, ArcConverter.segmentCount(1000, 360, 0.5f));
+        assertEquals(6, ArcConverter.segmentCount(1000, 360, 0.05f));
+    }
+
+    @Test
+    public void lowersArcs() {
+        assertEquals("M0,0L2,2", lower("M0,0 a0,1 0 0 1 2,2", 0.1f));
+        String circle = lower("M0,1 a1,1 0 1 1 2,0 a1,1 0 1 1 -2,0", 0.1f);
+        assertEquals(circle, 5, circle.split("C").length);
+        assertTrue(circle, circle.startsWith("M0,1C") && circle.endsWith(" 0,1"));
+        // The smooth curve doesn't reflect the curves which replaced the arc.
+        assertEquals("M0,0L1,1C1,1 2,2 3,1", lower("M0,0 a0,0 0 0 1 1,1 s1,1 2,0", 0.1f));
+        // An arc which ends where it starts is omitted.
+        assertEquals("M10,10L12,10", lower("M10 10 A5 5 0 1 1 10 10 L12 10", 0.01f));
+        ArcConverter.toCubics(10, 10, 5, 5, 0, true, true, 10, 10, 0.01f, new PathVisitor() {
+            @Override
+            public void segment(char verb, float[] coords, int offset) {
+                fail("Nothing to draw");
+            }
+
+            @Override
+            public void end() {
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonFiniteSweep() {
+        ArcConverter.segmentCount(5, Double.NaN, 0.01f);
+    }
+
+    @Test
+    public void staysWithinTolerance() {
+        Random random = new Random(18);
+        for (int round = 0; round < 1000; round++) {
+            final double cx = random.nextDouble() * 100;
+            final double cy = random.nextDouble() * 100;
+            final double r = 1 + random.nextDouble() * 500;
+            double start = random.nextDouble() * 2 * Math.PI;
+            double sweep = (random.nextDouble() * 2 - 1) * 1.9 * Math.PI;
+            final float tolerance = 0.01f + random.nextFloat();
+            float x0 = (float) (cx + r * Math.cos(start));
+            float y0 = (float) (cy + r * Math.sin(start));
+            float x1 = (float) (cx + r * Math.cos(start + sweep));
+            float y1 = (float) (cy + r * Math.sin(start + sweep));
+            final float[] pen = {x0, y0};
+            ArcConverter.toCubics(x0, y0, (float) r, (float) r, 0, Math.abs(sweep) > Math.PI, sweep > 0,
+                    x1, y1, tolerance, new PathVisitor() {
+                        @Override
+                        public void segment(char verb, float[] c, int k) {
+                            assertEquals('C', verb);
+                            for (int i = 0; i <= 20; i++) {
+                                double t = i / 20.0;
+                                double u = 1 - t;
+                                double x = u * u * u * pen[0] + 3 * u * u * t * c[k] + 3 * u * t * t * c[k + 2]
+                                        + t * t * t * c[k + 4];
+                                double y = u * u * u * pen[1] + 3 * u * u * t * c[k + 1]
+                                        + 3 * u * t * t * c[k + 3] + t * t * t * c[k + 5];
+                                // Plus the float rounding of the control points.
+                                assertEquals(r, Math.hypot(x - cx, y - cy), tolerance + r * 1e-6);
+                            }
+                            pen[0] = c[k + 4];
+                            pen[1] = c[k + 5];
+                        }
+
+                        @Override
+                        public void end() {
+                        }
+                    });
+            assertEquals(x1, pen[0], 0);
+            assertEquals(y1, pen[1], 0);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.junit.Assert.*;
+
+public class BinaryXmlWriterTest {
+    private static final float[] RADIX_MULTS = {1f / (1 << 8), 1f / (1 << 15), 1f / (1 << 23), 1f / (1L << 31)};
+
+    private static final class DecodedAttribute {
+        String mUri;
+        String mName;
+        int mResourceId;
+        String mRawValue;
+        int mType;
+        int mData;
+        String mStringData;
+    }
+
+    private static final class DecodedElement {
+        String mName;
+        final List<DecodedAttribute> mAttributes = new ArrayList<>();
+    }
+
+    /**
+     * Reads back the chunks, checking their sizes and nesting, and returns the
+     * elements in document order.
+     */
+    private static List<DecodedElement> decode(byte[] bytes) {
+        ByteBuffer b = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(BinaryXmlWriter.RES_XML_TYPE, b.getShort(0));
+        assertEquals(8, b.getShort(2));
+        assertEquals(bytes.length, b.getInt(4));
+
+        int position = 8;
+        assertEquals(BinaryXmlWriter.RES_STRING_POOL_TYPE, b.getShort(position));
+        String[] strings = decodeStringPool(b, position);
+        position += b.getInt(position + 4);
+        assertEquals(0, position % 4);
+
+        assertEquals(BinaryXmlWriter.RES_XML_RESOURCE_MAP_TYPE, b.getShort(position));
+        int mapSize = b.getInt(position + 4);
+        int[] ids = new int[(mapSize - 8) / 4];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = b.getInt(position + 8 + 4 * i);
+        }
+        position += mapSize;
+
+        List<DecodedElement> elements = new ArrayList<>();
+        List<String> open = new ArrayList<>();
+        int namespaces = 0;
+        while (position < bytes.length) {
+            int type = b.getShort(position);
+            assertEquals(16, b.getShort(position + 2));
+            int size = b.getInt(position + 4);
+            int body = position + 16;
+            switch (type) {
+                case BinaryXmlWriter.RES_XML_START_NAMESPACE_TYPE:
+                    namespaces++;
+                    break;
+                case BinaryXmlWriter.RES_XML_END_NAMESPACE_TYPE:
+                    namespaces--;
+                    break;
+                case BinaryXmlWriter.RES_XML_START_ELEMENT_TYPE: {
+                    DecodedElement element = new DecodedElement();
+                    element.mName = strings[b.getInt(body + 4)];
+                    int attributeStart = b.getShort(body + 8);
+                    int attributeSize = b.getShort(body + 10);
+                    int count = b.getShort(body + 12);
+                    assertEquals(36 + attributeSize * count, size);
+                    for (int i = 0; i < count; i++) {
+                        int a = body + attributeStart + attributeSize * i;
+                        DecodedAttribute attribute = new DecodedAttribute();
+                        int uri = b.getInt(a);
+                        int name = b.getInt(a + 4);
+                        int raw = b.getInt(a + 8);
+                        attribute.mUri = uri < 0 ? null : strings[uri];
+                        attribute.mName = strings[name];
+                        attribute.mResourceId = name < ids.length ? ids[name] : 0;
+                        attribute.mRawValue = raw < 0 ? null : strings[raw];
+                        assertEquals(8, b.getShort(a + 12));
+                        attribute.mType = b.get(a + 15) & 0xFF;
+                        attribute.mData = b.getInt(a + 16);
+                        if (attribute.mType == BinaryXmlWriter.TYPE_STRING) {
+                            attribute.mStringData = strings[attribute.mData];
+                        }
+                        element.mAttributes.add(attribute);
+                    }
+                    elements.add(element);
+                    open.add(element.mName);
+                    break;
+                }
+                case BinaryXmlWriter.RES_XML_END_ELEMENT_TYPE:
+                    assertEquals(open.remove(open.size() - 1), strings[b.getInt(body + 4)]);
+                    break;
+                default:
+                    fail("Unexpected chunk " + type);
+            }
+            position += size;
+        }
+        assertEquals(bytes.length, position);
+        assertTrue(open.isEmpty());
+        assertEquals(0, namespaces);
+        return elements;
+    }
+
+    private static String[] decodeStringPool(ByteBuffer b, int pool) {
+        int count = b.getInt(pool + 8);
+        boolean utf8 = (b.getInt(pool + 16) & BinaryXmlWriter.UTF8_FLAG) != 0;
+        int stringsStart = pool + b.getInt(pool + 20);
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            int p = stringsStart + b.getInt(pool + 28 + 4 * i);
+            if (utf8) {
+                p += (b.get(p) & 0x80) != 0 ? 2 : 1;
+                int length = b.get(p++) & 0xFF;
+                if ((length & 0x80) != 0) {
+                    length = (length & 0x7F) << 8 | (b.get(p++) & 0xFF);
+                }
+                strings[i] = new String(b.array(), p, length, StandardCharsets.UTF_8);
+                assertEquals(0, b.get(p + length));
+            } else {
+                int length = b.getShort(p) & 0xFFFF;
+                p += 2;
+                if ((length & 0x8000) != 0) {
+                    length = (length & 0x7FFF) << 16 | (b.getShort(p) & 0xFFFF);
+                    p += 2;
+                }
+                char[] chars = new char[length];
+                for (int k = 0; k < length; k++) {
+                    chars[k] = b.getChar(p + 2 * k);
+                }
+                strings[i] = new String(chars);
+            }
+        }
+        return strings;
+    }
+
+    private static float complexToFloat(int data) {
+        return (data & 0xFFFFFF00) * RADIX_MULTS[(data >> 4) & 3];
+    }
+
+    private static byte[] convert(String svg, boolean binary) {
+        byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+        ConverterContext context = new ConverterContext();
+        context.getOutputOptions().setBinaryXml(binary);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, context));
+        return out.toByteArray();
+    }
+
+    /**
+     * Compares the decoded binary document with the text one, element by
+     * element, reading the typed values back.
+     */
+    private static void assertSameDocument(String svg) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document text = factory.newDocumentBuilder().parse(new ByteArrayInputStream(convert(svg, false)));
+        List<DecodedElement> decoded = decode(convert(svg, true));
+
+        List<Element> elements = new ArrayList<>();
+        collect(text.getDocumentElement(), elements);
+        assertEquals(elements.size(), decoded.size());
+        for (int i = 0; i < elements.size(); i++) {
+            Element element = elements.get(i);
+            DecodedElement binary = decoded.get(i);
+            assertEquals(element.getTagName(), binary.mName);
+            NamedNodeMap attributes = element.getAttributes();
+            int count = 0;
+            int lastId = 0;
+            for (int k = 0; k < attributes.getLength(); k++) {
+                Attr attribute = (Attr) attributes.item(k);
+                if ("xmlns".equals(attribute.getPrefix())) {
+                    continue;
+                }
+                count++;
+                DecodedAttribute match = null;
+                for (DecodedAttribute candidate : binary.mAttributes) {
+                    if (candidate.mName.equalsIgnoreCase(attribute.getLocalName())) {
+                        match = candidate;
+                    }
+                }
+                assertNotNull(attribute.getName(), match);
+                assertEquals(attribute.getNamespaceURI(), match.mUri);
+                assertValue(attribute.getValue(), match);
+            }
+            assertEquals(count, binary.mAttributes.size());
+            for (DecodedAttribute attribute : binary.mAttributes) {
+                assertTrue("Sorted by id", Integer.compareUnsigned(lastId, attribute.mResourceId) <= 0
+                        || attribute.mResourceId == 0);
+                lastId = attribute.mResourceId == 0 ? -1 : attribute.mResourceId;
+            }
+        }
+    }
+
+    private static void assertValue(String text, DecodedAttribute attribute) {
+        switch (attribute.mType) {
+            case BinaryXmlWriter.TYPE_STRING:
+                assertEquals(text, attribute.mRawValue);
+                assertEquals(text, attribute.mStringData);
+                break;
+            case BinaryXmlWriter.TYPE_FLOAT:
+                assertEquals(Float.parseFloat(text), Float.intBitsToFloat(attribute.mData), 0);
+                break;
+            case BinaryXmlWriter.TYPE_DIMENSION:
+                assertTrue(text.endsWith("dp"));
+                assertEquals(BinaryXmlWriter.COMPLEX_UNIT_DIP, attribute.mData & 0xF);
+                assertEquals(Float.parseFloat(text.substring(0, text.length() - 2)),
+                        complexToFloat(attribute.mData), 1e-3f);
+                break;
+            case BinaryXmlWriter.TYPE_INT_COLOR_RGB8:
+                assertEquals(7, text.length());
+                assertEquals(0xFF000000 | Integer.parseInt(text.substring(1), 16), attribute.mData);
+                break;
+            case BinaryXmlWriter.TYPE_INT_COLOR_ARGB8:
+                // Android writes the alpha first.
+                assertEquals(9, text.length());
+                assertEquals((int) Long.parseLong(text.substring(1), 16), attribute.mData);
+                break;
+            case BinaryXmlWriter.TYPE_INT_DEC:
+                String[] names = attribute.mName.equals("strokeLineCap")
+                        ? new String[] {"butt", "round", "square"} : new String[] {"miter", "round", "bevel"};
+                assertEquals(text, names[attribute.mData]);
+                break;
+            default:
+                fail("Unexpected type " + attribute.mType);
+        }
+        if (attribute.mType != BinaryXmlWriter.TYPE_STRING) {
+            assertNull(attribute.mRawValue);
+        }
+    }
+
+    private static void collect(Element element, List<Element> out) {
+        out.add(element);
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                collect((Element) child, out);
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsTheConvertedDocument() throws Exception {
+        assertSameDocument("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\" width=\"24\" height=\"24\">"
+                + "<path d=\"M12,2C6.48,2 2,6.48 2,12s4.48,10 10,10z\" fill=\"rgba(16,32,48,0.5)\" fill-opacity=\"0.5\"/>"
+                + "<circle cx=\"12\" cy=\"12\" r=\"3\" fill=\"none\" stroke=\"teal\" stroke-width=\"1.5\""
+                + " stroke-linecap=\"round\" stroke-linejoin=\"bevel\" stroke-opacity=\"0.25\"/>"
+                + "<path d=\"M1,1L5,5\" fill=\"url(#gradient)\" clip=\"auto\"/>"
+                + "<path d=\"M2,2L5,5\" fill=\"rgba(255,0,0,0.5)\" stroke=\"#00ff0040\"/></svg>");
+        assertSameDocument(new String(ConversionBenchmarkTest.generateSvg(300), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writesResourceIds() {
+        List<DecodedElement> elements = decode(convert("<svg xmlns=\"http://www.w3.org/2000/svg\""
+                + " viewBox=\"0 0 10 20\" width=\"10\" height=\"20\">"
+                + "<path d=\"M1,1L5,5\" stroke=\"red\" stroke-width=\"2\"/></svg>", true));
+        DecodedElement vector = elements.get(0);
+        assertEquals("vector", vector.mName);
+        int[] expected = {0x01010155, 0x01010159, 0x01010402, 0x01010403};
+        String[] names = {"height", "width", "viewportWidth", "viewportHeight"};
+        for (int i = 0; i < expected.length; i++) {
+            DecodedAttribute attribute = vector.mAttributes.get(i);
+            assertEquals(names[i], attribute.mName);
+            assertEquals(expected[i], attribute.mResourceId);
+            assertEquals("http://schemas.android.com/apk/res/android", attribute.mUri);
+        }
+        assertEquals(BinaryXmlWriter.TYPE_DIMENSION, vector.mAttributes.get(1).mType);
+
+        DecodedElement path = elements.get(1);
+        assertEquals("path", path.mName);
+        assertEquals(0x01010404, path.mAttributes.get(0).mResourceId);
+        assertEquals(BinaryXmlWriter.TYPE_INT_COLOR_RGB8, path.mAttributes.get(0).mType);
+        assertEquals(0xFF000000, path.mAttributes.get(0).mData);
+        assertEquals("pathData", path.mAttributes.get(1).mName);
+        assertEquals("M1,1L5,5", path.mAttributes.get(1).mStringData);
+        assertEquals(0x01010406, path.mAttributes.get(2).mResourceId);
+        assertEquals(0x01010407, path.mAttributes.get(3).mResourceId);
+    }
+
+    @Test
+    public void writesTranslucentColors() {
+        List<DecodedElement> elements = decode(convert("<svg xmlns=\"http://www.w3.org/2000/svg\""
+                + " viewBox=\"0 0 10 10\"><path d=\"M1,1L5,5\" fill=\"rgba(255,0,0,0.5)\""
+                + " stroke=\"#00ff00\" stroke-opacity=\"0.25\"/></svg>", true));
+        DecodedElement path = elements.get(1);
+        DecodedAttribute fill = path.mAttributes.get(0);
+        assertEquals("fillColor", fill.mName);
+        assertEquals(BinaryXmlWriter.TYPE_INT_COLOR_ARGB8, fill.mType);
+        assertEquals(0x80FF0000, fill.mData);
+        DecodedAttribute stroke = path.mAttributes.get(2);
+        assertEquals("strokeColor", stroke.mName);
+        assertEquals(BinaryXmlWriter.TYPE_INT_COLOR_ARGB8, stroke.mType);
+        assertEquals(0x4000FF00, stroke.mData);
+    }
+
+    @Test
+    public void longStringsUseAUtf16Pool() throws Exception {
+        StringBuilder d = new StringBuilder("M0,0");
+        for (int i = 0; i < 5000; i++) {
+            d.append("L").append(i).append(',').append(i % 7);
+        }
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\">"
+                + "<path d=\"" + d + "\"/></svg>";
+        byte[] binary = convert(svg, true);
+        assertEquals(0, ByteBuffer.wrap(binary).order(ByteOrder.LITTLE_ENDIAN).getInt(8 + 16)
+                & BinaryXmlWriter.UTF8_FLAG);
+        assertSameDocument(svg);
+    }
+
+    @Test
+    public void encodesComplexValues() {
+        float[] values = {0, 1, 24, 1000, 0.5f, 12.25f, 123.456f, -3.5f, 70000.5f};
+        for (float value : values) {
+            assertEquals(value, complexToFloat(BinaryXmlWriter.floatToComplex(value)), Math.abs(value) * 1e-5f);
+        }
+        assertEquals(24 << 8, BinaryXmlWriter.floatToComplex(24));
+    }
+}
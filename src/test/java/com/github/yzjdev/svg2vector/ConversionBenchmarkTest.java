@@ -0,0 +1,248 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Timing runs for the converter. They are skipped unless the build is run
+ * with -Dsvg2vector.benchmark=true, and only print their numbers.
+ */
+public class ConversionBenchmarkTest {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    @Before
+    public void checkEnabled() {
+        assumeTrue(Boolean.getBoolean("svg2vector.benchmark"));
+    }
+
+    /**
+     * The document is scanned once, so the time per element should stay flat
+     * as the document grows.
+     */
+    @Test
+    public void conversionTimeScalesWithElementCount() {
+        ConverterContext context = new ConverterContext();
+        for (int count = 1000; count <= 64000; count *= 4) {
+            byte[] svg = generateSvg(count);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                out.reset();
+                assertNull(Svg2Vector.parseSvgToXml(svg, 0, svg.length, out, context));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                out.reset();
+                Svg2Vector.parseSvgToXml(svg, 0, svg.length, out, context);
+            }
+            long elapsed = (System.nanoTime() - start) / ROUNDS;
+            System.out.printf("%6d elements: %8.2f ms, %6.0f ns/element%n",
+                    count, elapsed / 1e6, (double) elapsed / count);
+        }
+    }
+
+    /**
+     * Compares {@link FloatParser} with substring + {@link Float#parseFloat} on
+     * typical path data numbers. The repo has no JMH setup, so this is a plain
+     * timing loop after a warm-up.
+     */
+    @Test
+    public void floatParserAgainstJdk() {
+        int count = 100000;
+        StringBuilder sb = new StringBuilder();
+        int[] bounds = new int[count * 2];
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < count; i++) {
+            bounds[2 * i] = sb.length();
+            sb.append(random.nextInt(2000) - 1000).append('.').append(random.nextInt(1000));
+            bounds[2 * i + 1] = sb.length();
+            sb.append(',');
+        }
+        String data = sb.toString();
+
+        float sum = 0;
+        long fast = Long.MAX_VALUE;
+        long jdk = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += FloatParser.parseFloat(data, bounds[2 * i], bounds[2 * i + 1]);
+            }
+            fast = Math.min(fast, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += Float.parseFloat(data.substring(bounds[2 * i], bounds[2 * i + 1]));
+            }
+            jdk = Math.min(jdk, System.nanoTime() - start);
+        }
+        System.out.printf("FloatParser: %5.1f ns/number, Float.parseFloat: %5.1f ns/number (%s)%n",
+                (double) fast / count, (double) jdk / count, sum != 0);
+    }
+
+    /**
+     * Tokenizes, transforms and writes paths of 10^3 to 10^6 segments. The time
+     * per segment should stay flat, showing the pipeline is linear.
+     */
+    @Test
+    public void pathSerializationScalesLinearly() {
+        for (int segments = 1000; segments <= 1000000; segments *= 10) {
+            StringBuilder input = new StringBuilder("M0,0");
+            for (int i = 1; i < segments; i++) {
+                input.append(i % 2 == 0 ? "l1.25,-0.5" : "c1,2 3.5,4 5,-6.125");
+            }
+            String pathData = input.toString();
+            StringBuilder out = new StringBuilder(pathData.length() * 2);
+            int rounds = Math.max(3, 1000000 / segments);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < rounds + WARMUP_ROUNDS; round++) {
+                out.setLength(0);
+                long start = System.nanoTime();
+                PathTokenizer.tokenize(pathData,
+                        new PathTransformer(2, 0, 0, 2, 0.5f, -0.5f, new PathWriter(out)));
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%8d segments: %9.3f ms, %5.1f ns/segment%n",
+                    segments, best / 1e6, (double) best / segments);
+        }
+    }
+
+    /**
+     * Converts a document of 10k paths with and without a viewBox offset. The
+     * paths are rewritten once when there is an offset, and the time without
+     * one is the baseline, where the paths are only written out.
+     */
+    @Test
+    public void normalizeTenThousandPaths() {
+        ConverterContext context = new ConverterContext();
+        String[] viewBoxes = {"0 0 1000 1000", "-12.5 20 1000 1000"};
+        for (String viewBox : viewBoxes) {
+            byte[] svg = generateSvg(10000, viewBox);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < WARMUP_ROUNDS + ROUNDS; i++) {
+                out.reset();
+                long start = System.nanoTime();
+                assertNull(Svg2Vector.parseSvgToXml(svg, 0, svg.length, out, context));
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("viewBox %-18s: %7.2f ms, %5.0f ns/path%n",
+                    "\"" + viewBox + "\"", best / 1e6, best / 10000.0);
+        }
+    }
+
+    /**
+     * Measures the output rate of the whole conversion on large documents,
+     * and of {@link VectorDrawableWriter} alone.
+     */
+    @Test
+    public void writerThroughput() throws java.io.IOException {
+        ConverterContext context = new ConverterContext();
+        byte[] svg = generateSvg(64000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 << 20);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + ROUNDS; i++) {
+            out.reset();
+            long start = System.nanoTime();
+            assertNull(Svg2Vector.parseSvgToXml(svg, 0, svg.length, out, context));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("conversion: %d bytes in %.2f ms, %.1f MB/s%n",
+                out.size(), best / 1e6, out.size() / (best / 1e9) / 1e6);
+
+        String pathData = "M12,2C6.48,2,2,6.48,2,12s4.48,10,10,10,10-4.48,10-10S17.52,2,12,2z";
+        int paths = 200000;
+        best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + ROUNDS; i++) {
+            out.reset();
+            long start = System.nanoTime();
+            VectorDrawableWriter writer = new VectorDrawableWriter(out);
+            for (int j = 0; j < paths; j++) {
+                writer.startTag("    ", "path");
+                writer.attribute("android:pathData", pathData);
+                writer.attribute("android:fillColor", "#FF336699");
+                writer.endEmptyTag();
+            }
+            writer.flush();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("writer: %d bytes in %.2f ms, %.1f MB/s%n",
+                out.size(), best / 1e6, out.size() / (best / 1e9) / 1e6);
+    }
+
+    /**
+     * Compares the size of the usual output with the minified one, alone and
+     * with the compact path data.
+     */
+    @Test
+    public void minifiedOutputSize() {
+        byte[] svg = generateSvg(10000);
+        int[] sizes = new int[3];
+        for (int mode = 0; mode < sizes.length; mode++) {
+            ConverterContext context = new ConverterContext();
+            context.getOutputOptions().setMinifyXml(mode > 0);
+            context.getOutputOptions().setCompactPathData(mode > 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertNull(Svg2Vector.parseSvgToXml(svg, 0, svg.length, out, context));
+            sizes[mode] = out.size();
+        }
+        System.out.printf("pretty: %d bytes, minified: %d bytes (-%.1f%%), with compact paths: %d bytes (-%.1f%%)%n",
+                sizes[0], sizes[1], 100.0 * (sizes[0] - sizes[1]) / sizes[0],
+                sizes[2], 100.0 * (sizes[0] - sizes[2]) / sizes[0]);
+    }
+
+    static byte[] generateSvg(int shapeCount) {
+        return generateSvg(shapeCount, "0 0 1000 1000");
+    }
+
+    /**
+     * @return a document with the given number of shapes, spread over nested
+     *         groups, with a few <use> elements and hidden groups in between.
+     */
+    static byte[] generateSvg(int shapeCount, String viewBox) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"").append(viewBox)
+                .append("\" width=\"1000\" height=\"1000\">\n");
+        for (int i = 0; i < shapeCount; i++) {
+            if (i % 100 == 0) {
+                if (i > 0) {
+                    sb.append("</g></g>\n");
+                }
+                sb.append("<g style=\"stroke:#336699;stroke-width:2\"><g>\n");
+                sb.append("<g display=\"none\"><path d=\"M0 0L10 10\"/></g>\n");
+            }
+            int x = i % 1000;
+            int y = (i / 1000) % 1000;
+            switch (i % 4) {
+                case 0:
+                    sb.append("<path d=\"M").append(x).append(' ').append(y)
+                            .append("l10.5-3.25c1 2 3 4 5 6z\" fill=\"#ff0000\"/>\n");
+                    break;
+                case 1:
+                    sb.append("<rect x=\"").append(x).append("\" y=\"").append(y)
+                            .append("\" width=\"10\" height=\"20\" style=\"fill:#00ff00;fill-opacity:0.5\"/>\n");
+                    break;
+                case 2:
+                    sb.append("<line x1=\"").append(x).append("\" y1=\"").append(y)
+                            .append("\" x2=\"").append(x + 5).append("\" y2=\"").append(y + 5)
+                            .append("\" stroke=\"#000\"/>\n");
+                    break;
+                default:
+                    sb.append("<polygon points=\"").append(x).append(',').append(y).append(' ')
+                            .append(x + 10).append(',').append(y).append(' ')
+                            .append(x).append(',').append(y + 10).append("\"/>\n");
+                    break;
+            }
+        }
+        if (shapeCount > 0) {
+            sb.append("</g></g>\n");
+        }
+        sb.append("</svg>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CssColorTest {
+    private static long parse(String value) {
+        return CssColor.parse(value, 0, value.length());
+    }
+
+    @Test
+    public void namedColors() {
+        assertEquals(0xFFF0F8FFL, parse("aliceblue"));
+        assertEquals(0xFF9ACD32L, parse("yellowgreen"));
+        assertEquals(0xFF663399L, parse("RebeccaPurple"));
+        assertEquals(0xFF808080L, parse("grey"));
+        assertEquals(0, parse("transparent"));
+        assertEquals(0, parse("none"));
+        assertEquals(CssColor.CURRENT_COLOR, parse("currentColor"));
+        assertEquals(CssColor.NO_COLOR, parse("notacolor"));
+        assertEquals(CssColor.NO_COLOR, parse("url(#gradient)"));
+    }
+
+    @Test
+    public void hexColors() {
+        assertEquals(0xFFAABBCCL, parse("#abc"));
+        assertEquals(0xDDAABBCCL, parse("#abcd"));
+        assertEquals(0xFF102030L, parse("#102030"));
+        assertEquals(0x40102030L, parse("#10203040"));
+        assertEquals(CssColor.NO_COLOR, parse("#12345"));
+        assertEquals(CssColor.NO_COLOR, parse("#12345g"));
+    }
+
+    @Test
+    public void rgbFunctions() {
+        assertEquals(0xFF0A141EL, parse("rgb(10, 20, 30)"));
+        assertEquals(0xFFFF0000L, parse("rgb(300,-5,0)"));
+        assertEquals(0xFF80FF00L, parse("rgb(50%, 100%, 0%)"));
+        assertEquals(0x800A141EL, parse("rgba(10, 20, 30, 0.5)"));
+        assertEquals(0x400A141EL, parse("rgb(10 20 30 / 25%)"));
+        assertEquals(0xFF0A141EL, parse("RGB( 10 20 30 )"));
+    }
+
+    @Test
+    public void hslFunctions() {
+        assertEquals(0xFFFF0000L, parse("hsl(0, 100%, 50%)"));
+        assertEquals(0xFF00FF00L, parse("hsl(120deg 100% 50%)"));
+        assertEquals(0xFF0000FFL, parse("hsl(0.6667turn, 100%, 50%)"));
+        assertEquals(0xFF0000FFL, parse("hsl(-120, 100%, 50%)"));
+        assertEquals(0x80808080L, parse("hsla(0, 0%, 50%, 0.5)"));
+        assertEquals(0xFFFFFFFFL, parse("hsl(10rad 30% 100%)"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewArguments() {
+        parse("rgb(1, 2)");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidAngleUnit() {
+        parse("hsl(10px, 10%, 10%)");
+    }
+
+    @Test
+    public void currentColorIsResolvedWhenWritten() {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 10 10\">"
+                + "<g style=\"color:teal\"><path d=\"M1,1L5,5\" fill=\"currentColor\""
+                + " style=\"stroke:currentColor;color:#abc\"/>"
+                + "<path d=\"M1,1L5,5\" fill=\"rgba(255,0,0,50%)\" stroke=\"currentColor\"/></g></svg>";
+        byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, new ConverterContext()));
+        String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(xml, xml.contains("android:fillColor=\"#AABBCC\"\n"
+                + "        android:strokeColor=\"#AABBCC\"/>"));
+        assertTrue(xml, xml.contains("android:fillColor=\"#80FF0000\"\n"
+                + "        android:strokeColor=\"#008080\"/>"));
+    }
+
+    @Test
+    public void transparentFillWithStrokeIsTransformed() {
+        String[] fills = {"transparent", "rgba(0,0,0,0)", "none"};
+        for (String fill : fills) {
+            String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"5 5 24 24\">"
+                    + "<path fill=\"" + fill + "\" stroke=\"red\" d=\"M5 5L10 10\"/></svg>";
+            byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, new ConverterContext()));
+            String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            assertTrue(fill + ": " + xml, xml.contains("android:pathData=\"M0,0L5,5\""));
+        }
+    }
+
+    @Test
+    public void opacityFoldsIntoAlpha() {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 10 10\">"
+                + "<path d=\"M1,1L5,5\" fill=\"rgba(255,0,0,0.5)\" fill-opacity=\"0.5\""
+                + " stroke=\"#00ff00\" stroke-opacity=\"0.5\" opacity=\"0.5\"/>"
+                + "<path d=\"M1,1L5,5\" fill=\"url(#g)\" stroke=\"url(#h)\" opacity=\"0.5\"/></svg>";
+        byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, new ConverterContext()));
+        String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(xml, xml.contains("android:fillColor=\"#20FF0000\"\n"
+                + "        android:strokeColor=\"#4000FF00\"/>"));
+        // A color written as found keeps the opacity apart.
+        assertTrue(xml, xml.contains("android:fillColor=\"url(#g)\"\n"
+                + "        android:fillAlpha=\"0.5\"\n"
+                + "        android:strokeColor=\"url(#h)\"\n"
+                + "        android:strokeAlpha=\"0.5\"/>"));
+    }
+}
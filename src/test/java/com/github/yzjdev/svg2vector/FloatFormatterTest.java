@@ -0,0 +1,47 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FloatFormatterTest {
+    private static String format(float value) {
+        return FloatFormatter.append(new StringBuilder(), value).toString();
+    }
+
+    @Test
+    public void writesPlainDecimals() {
+        assertEquals("0", format(0f));
+        assertEquals("0", format(-0f));
+        assertEquals("17", format(17f));
+        assertEquals("-3", format(-3f));
+        assertEquals("0.1", format(0.1f));
+        assertEquals("-2.5", format(-2.5f));
+        assertEquals("0.001", format(0.001f));
+        assertEquals("0.0001", format(1e-4f));
+        assertEquals("12345.678", format(12345.678f));
+        assertEquals("100000000", format(1e8f));
+    }
+
+    @Test
+    public void roundTripsWithShortestDigits() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200000; i++) {
+            float value = (random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(12) - 4);
+            String s = format(value);
+            assertEquals(s, Float.floatToIntBits(value == 0 ? 0f : value),
+                    Float.floatToIntBits(Float.parseFloat(s)));
+            // No decimal with one fraction digit less parses back to the value.
+            int dot = s.indexOf('.');
+            if (dot >= 0 && s.indexOf('E') < 0) {
+                int digits = s.length() - dot - 1;
+                BigDecimal shorter = new BigDecimal(s).setScale(digits - 1, RoundingMode.HALF_EVEN);
+                assertTrue(s, Float.parseFloat(shorter.toPlainString()) != value);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link FloatParser} gives exactly the bits of {@link Float#parseFloat}.
+ */
+public class FloatParserTest {
+    private static void assertSameAsJdk(String s) {
+        int expected = Float.floatToRawIntBits(Float.parseFloat(s));
+        int actual = Float.floatToRawIntBits(FloatParser.parseFloat(s));
+        assertEquals("parsing \"" + s + "\"", expected, actual);
+    }
+
+    @Test
+    public void parsesSvgNumbers() {
+        String[] numbers = {
+                "0", "-0", "+0", "0.0", "-0.0", ".5", "-.5", "+.5", "5.", "1e3", "1E3", "1e-3",
+                "1e+3", "-1.5e-7", "12.34", "0.1", "0.2", "0.3", "3.4028235e38", "1.4e-45",
+                "16777216", "16777217", "16777219", "9007199254740993", "123456789012345678",
+                "1234567890123456789", "0.000000000000000000001", "1e22", "1e23", "1e-22",
+                "1e-23", "1e39", "1e-46", "007", "0.30000001192092896", "2.0000002384185791015625",
+        };
+        for (String s : numbers) {
+            assertSameAsJdk(s);
+        }
+    }
+
+    @Test
+    public void parsesRandomNumbers() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            StringBuilder sb = new StringBuilder();
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            int intDigits = random.nextInt(8);
+            for (int j = 0; j < intDigits; j++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            int fractionDigits = random.nextInt(12);
+            if (intDigits == 0 && fractionDigits == 0) {
+                fractionDigits = 1;
+            }
+            if (fractionDigits > 0) {
+                sb.append('.');
+                for (int j = 0; j < fractionDigits; j++) {
+                    sb.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append('e').append(random.nextInt(60) - 30);
+            }
+            assertSameAsJdk(sb.toString());
+        }
+    }
+
+    @Test
+    public void parsesFloatHalfwayCases() {
+        // Decimal values exactly halfway between two floats, which a naive
+        // double-then-float conversion rounds the wrong way.
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            float f = Float.intBitsToFloat(random.nextInt(0x7f000000));
+            double halfway = ((double) f + Math.nextUp(f)) / 2;
+            assertSameAsJdk(new java.math.BigDecimal(halfway).toString());
+            assertSameAsJdk(Double.toString(halfway));
+            assertSameAsJdk(Float.toString(f));
+        }
+    }
+
+    @Test
+    public void parsesRegion() {
+        assertEquals(2.5f, FloatParser.parseFloat("M2.5,3", 1, 4), 0);
+        assertEquals(-3f, FloatParser.parseFloat("1-3", 1, 3), 0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsGarbage() {
+        FloatParser.parseFloat("1e");
+    }
+
+    @Test
+    public void rejectsLikeJdk() {
+        for (String s : new String[] {"", ".", "-", "e5", "1e", "1x", "--1"}) {
+            try {
+                FloatParser.parseFloat(s);
+                fail("parsed \"" + s + "\"");
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+}
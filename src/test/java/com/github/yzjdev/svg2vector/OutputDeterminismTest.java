@@ -0,0 +1,64 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OutputDeterminismTest {
+    private static byte[] convert(byte[] svg, ConverterContext context) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(Svg2Vector.parseSvgToXml(svg, 0, svg.length, out, context));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void repeatedRunsAreByteIdentical() {
+        byte[] svg = ConversionBenchmarkTest.generateSvg(2000, "-5 7.5 1000 1000");
+        byte[] first = convert(svg, new ConverterContext());
+        assertArrayEquals(first, convert(svg, new ConverterContext()));
+        ConverterContext context = new ConverterContext();
+        convert(ConversionBenchmarkTest.generateSvg(10), context);
+        assertArrayEquals(first, convert(svg, context));
+    }
+
+    @Test
+    public void attributeOrderIsCanonical() {
+        List<String> attributes = new ArrayList<>();
+        attributes.add("d=\"M1,1L5,5\"");
+        attributes.add("fill=\"#102030\"");
+        attributes.add("fill-opacity=\"0.5\"");
+        attributes.add("stroke=\"#405060\"");
+        attributes.add("stroke-opacity=\"0.25\"");
+        attributes.add("stroke-width=\"2\"");
+        attributes.add("stroke-linecap=\"round\"");
+        attributes.add("stroke-linejoin=\"bevel\"");
+        // The inline style wins over the attributes, wherever it is.
+        attributes.add("style=\"fill:#0a0b0c;stroke-width:3\"");
+        byte[] expected = null;
+        Random random = new Random(22);
+        for (int round = 0; round < 20; round++) {
+            Collections.shuffle(attributes, random);
+            String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 10 10\"><path "
+                    + String.join(" ", attributes) + "/></svg>";
+            byte[] output = convert(svg.getBytes(StandardCharsets.UTF_8), new ConverterContext());
+            if (expected == null) {
+                expected = output;
+                assertTrue(new String(output, StandardCharsets.UTF_8).contains(
+                        "android:fillColor=\"#800A0B0C\"\n"
+                                + "        android:strokeColor=\"#40405060\"\n"
+                                + "        android:strokeWidth=\"3\"\n"
+                                + "        android:strokeLinecap=\"round\"\n"
+                                + "        android:strokeLinejoin=\"bevel\"/>"));
+            } else {
+                assertArrayEquals(svg, expected, output);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathBoundsTest {
+    private static float[] bounds(String pathData) {
+        return PathBounds.compute(VdParser.parsePath(pathData));
+    }
+
+    @Test
+    public void boundsCurvesByTheirExtrema() {
+        assertArrayEquals(new float[] {1, -3, 5, 2}, bounds("M1,2 L5,-3"), 0);
+        assertArrayEquals(new float[] {0, 0, 10, 7.5f}, bounds("M0,0 C0,10 10,10 10,0"), 1e-6f);
+        assertArrayEquals(new float[] {0, 0, 10, 5}, bounds("M0,0 Q5,10 10,0"), 1e-6f);
+        assertArrayEquals(new float[] {0, -5, 20, 5}, bounds("M0,0 q5,10 10,0 t10,0"), 1e-6f);
+        assertArrayEquals(new float[] {0, -5, 10, 0}, bounds("M0,0 A5,5 0 0 1 10,0"), 1e-5f);
+        assertArrayEquals(new float[] {0, 0, 10, 5}, bounds("M0,0 a5,5 0 0 0 10,0"), 1e-5f);
+        assertNull(bounds(""));
+    }
+
+    @Test
+    public void matchesSampledCurves() {
+        Random random = new Random(19);
+        for (int round = 0; round < 500; round++) {
+            String verb = round % 3 == 0 ? "C" : round % 3 == 1 ? "Q" : "A";
+            StringBuilder pathData = new StringBuilder("M").append(random.nextInt(100)).append(',')
+                    .append(random.nextInt(100)).append(verb);
+            if (verb.equals("A")) {
+                pathData.append(1 + random.nextInt(50)).append(',').append(1 + random.nextInt(50)).append(' ')
+                        .append(random.nextInt(360)).append(' ').append(random.nextInt(2)).append(' ')
+                        .append(random.nextInt(2)).append(' ');
+                verb = "";
+            }
+            for (int i = verb.equals("C") ? 3 : verb.equals("Q") ? 2 : 1; i > 0; i--) {
+                pathData.append(random.nextInt(100)).append(',').append(random.nextInt(100)).append(' ');
+            }
+            // Sample the curves, with the arcs split finely enough.
+            StringBuilder lowered = new StringBuilder();
+            PathTokenizer.tokenize(pathData, new ArcLowerer(1e-4f, new PathWriter(lowered)));
+            PathData path = VdParser.parsePath(lowered.toString());
+            float[] sampled = sample(path);
+            float[] exact = bounds(pathData.toString());
+            assertArrayEquals(pathData.toString(), sampled, exact, 1e-2f);
+        }
+    }
+
+    private static float[] sample(PathData path) {
+        float[] c = path.getCoords();
+        float[] b = {c[0], c[1], c[0], c[1]};
+        int k = 2;
+        float x = c[0];
+        float y = c[1];
+        for (int i = 1; i < path.getSegmentCount(); i++) {
+            char verb = path.getVerb(i);
+            int n = PathData.getArity(verb);
+            for (int s = 0; s <= 1000; s++) {
+                double t = s / 1000.0;
+                double u = 1 - t;
+                double px;
+                double py;
+                if (verb == 'C') {
+                    px = u * u * u * x + 3 * u * u * t * c[k] + 3 * u * t * t * c[k + 2] + t * t * t * c[k + 4];
+                    py = u * u * u * y + 3 * u * u * t * c[k + 1] + 3 * u * t * t * c[k + 3] + t * t * t * c[k + 5];
+                } else if (verb == 'Q') {
+                    px = u * u * x + 2 * u * t * c[k] + t * t * c[k + 2];
+                    py = u * u * y + 2 * u * t * c[k + 1] + t * t * c[k + 3];
+                } else {
+                    px = c[k + n - 2];
+                    py = c[k + n - 1];
+                }
+                b[0] = Math.min(b[0], (float) px);
+                b[1] = Math.min(b[1], (float) py);
+                b[2] = Math.max(b[2], (float) px);
+                b[3] = Math.max(b[3], (float) py);
+            }
+            x = c[k + n - 2];
+            y = c[k + n - 1];
+            k += n;
+        }
+        return b;
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathCommandOptimizerTest {
+    private static String optimize(String pathData, int precision) {
+        OutputOptions options = new OutputOptions();
+        options.setPrecision(precision);
+        options.setCompactPathData(true);
+        StringBuilder sb = new StringBuilder();
+        PathTokenizer.tokenize(pathData, new PathCommandOptimizer(options, new PathWriter(sb, options)));
+        return sb.toString();
+    }
+
+    /**
+     * Collects the absolute end and control points of every segment.
+     */
+    private static final class Points implements PathVisitor {
+        final List<float[]> mPoints = new ArrayList<>();
+        float mX, mY, mStartX, mStartY, mCtrlX, mCtrlY;
+        char mLast = 'M';
+
+        @Override
+        public void segment(char verb, float[] v, int k) {
+            char upper = Character.toUpperCase(verb);
+            float dx = upper == verb ? 0 : mX;
+            float dy = upper == verb ? 0 : mY;
+            float[] p;
+            switch (upper) {
+                case 'Z':
+                    mX = mStartX;
+                    mY = mStartY;
+                    p = new float[] {mX, mY};
+                    break;
+                case 'H':
+                    mX = v[k] + dx;
+                    p = new float[] {mX, mY};
+                    break;
+                case 'V':
+                    mY = v[k] + dy;
+                    p = new float[] {mX, mY};
+                    break;
+                case 'C':
+                case 'S':
+                case 'Q':
+                case 'T':
+                    boolean cubic = upper == 'C' || upper == 'S';
+                    boolean reflect = cubic ? "CS".indexOf(mLast) >= 0 : "QT".indexOf(mLast) >= 0;
+                    int n = PathData.getArity(upper);
+                    float c1x = reflect ? 2 * mX - mCtrlX : mX;
+                    float c1y = reflect ? 2 * mY - mCtrlY : mY;
+                    if (upper == 'C' || upper == 'Q') {
+                        c1x = v[k] + dx;
+                        c1y = v[k + 1] + dy;
+                    }
+                    mCtrlX = upper == 'T' ? c1x : v[k + n - 4] + dx;
+                    mCtrlY = upper == 'T' ? c1y : v[k + n - 3] + dy;
+                    mX = v[k + n - 2] + dx;
+                    mY = v[k + n - 1] + dy;
+                    p = new float[] {c1x, c1y, mCtrlX, mCtrlY, mX, mY};
+                    break;
+                case 'A':
+                    mX = v[k + 5] + dx;
+                    mY = v[k + 6] + dy;
+                    p = new float[] {v[k], v[k + 1], v[k + 2], v[k + 3], v[k + 4], mX, mY};
+                    break;
+                default:
+                    mX = v[k] + dx;
+                    mY = v[k + 1] + dy;
+                    if (upper == 'M') {
+                        mStartX = mX;
+                        mStartY = mY;
+                    }
+                    p = new float[] {mX, mY};
+                    break;
+            }
+            mLast = upper;
+            mPoints.add(p);
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+
+    private static List<float[]> points(String pathData) {
+        Points points = new Points();
+        PathTokenizer.tokenize(pathData, points);
+        return points.mPoints;
+    }
+
+    @Test
+    public void picksShortestForm() {
+        assertEquals("M10,10H20V20H10z", optimize("M10,10 l10,0 l0,10 l-10,0 z", OutputOptions.FULL_PRECISION));
+        assertEquals("M100,100l1,1", optimize("M100,100 L101,101", OutputOptions.FULL_PRECISION));
+        // The control point is the reflection of the previous one.
+        assertEquals("M100,100c1,1,2,1,3,0s2-1,3,0", optimize("M100,100 C101,101 102,101 103,100 "
+                + "C104,99 105,99 106,100", OutputOptions.FULL_PRECISION));
+        assertEquals("M100,100q1,1,2,0t2,0", optimize("M100,100 Q101,101 102,100 Q103,99 104,100",
+                OutputOptions.FULL_PRECISION));
+        // The lineto is horizontal once rounded.
+        assertEquals("M0,0H5", optimize("M0,0 L5,0.001", 2));
+    }
+
+    @Test
+    public void keepsGeometryWithinPrecision() {
+        Random random = new Random(16);
+        String verbs = "MLHVCSQTAZmlhvcsqtaz";
+        for (int precision = -1; precision < 4; precision++) {
+            float tolerance = precision < 0 ? 1e-3f : 0.5f / (float) Math.pow(10, precision) + 1e-3f;
+            for (int round = 0; round < 500; round++) {
+                StringBuilder input = new StringBuilder("M1,1");
+                for (int i = 0; i < 50; i++) {
+                    char verb = verbs.charAt(random.nextInt(verbs.length()));
+                    input.append(verb);
+                    int arity = PathData.getArity(verb);
+                    for (int j = 0; j < arity; j++) {
+                        if ((verb == 'a' || verb == 'A') && (j == 3 || j == 4)) {
+                            input.append(random.nextInt(2));
+                        } else {
+                            // Mostly short values, so the shorthands get used.
+                            input.append(random.nextBoolean() ? random.nextInt(20) - 10
+                                    : (random.nextFloat() - 0.5f) * 20);
+                        }
+                        input.append(' ');
+                    }
+                }
+                String output = optimize(input.toString(), precision);
+                List<float[]> expected = points(input.toString());
+                List<float[]> actual = points(output);
+                assertEquals(output, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    // The errors don't add up along the path.
+                    assertArrayEquals(input + " -> " + output, expected.get(i), actual.get(i),
+                            3 * tolerance);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathSimplifierTest {
+    private static String simplify(String pathData, float tolerance) {
+        StringBuilder sb = new StringBuilder();
+        PathTokenizer.tokenize(pathData, new PathSimplifier(tolerance, new PathWriter(sb)));
+        return sb.toString();
+    }
+
+    @Test
+    public void mergesCollinearLines() {
+        assertEquals("M0,0L3,0", simplify("M0,0 L1,0 2,0 h1", 0.01f));
+        assertEquals("M0,0L2,0L2,2", simplify("M0,0 L1,0.001 2,0 2,2", 0.01f));
+        // The closing line is part of the run.
+        assertEquals("M0,0L10,0L10,10L0,10Z", simplify("M0,0 L10,0 10,10 0,10 0,5 0,0z", 0.01f));
+    }
+
+    @Test
+    public void flattensCurves() {
+        assertEquals("M0,0L3,0", simplify("M0,0 C1,0.001 2,-0.001 3,0", 0.01f));
+        assertEquals("M0,0L4,0", simplify("M0,0 q1,0.001 2,0 t2,0", 0.01f));
+        // Kept, with the implicit control point written out.
+        assertEquals("M1,1C2,2 3,2 4,1C5,0 6,0 7,1", simplify("M1,1 c1,1 2,1 3,0 s2,-1 3,0", 0.01f));
+        assertEquals("M0,0L2,2A1,1 0,0 1,3 3", simplify("M0,0 q1,1 2,2 a1,1 0 0 1 1,1", 0.01f));
+    }
+
+    @Test
+    public void dropsZeroLengthSegments() {
+        assertEquals("M1,1L2,2", simplify("M1,1 L1,1 1.001,1 2,2 2,2", 0.01f));
+        assertEquals("M1,1L2,2", simplify("M1,1 a1,1 0 0 1 0,0 L2,2", 0.01f));
+        // A short chord, but the large arc goes almost around the circle.
+        assertEquals("M10,10A8,8 0,1 1,10.05 10Z", simplify("M10 10 A8 8 0 1 1 10.05 10 Z", 0.1f));
+        // A small arc is flat, and goes into the run of lines.
+        assertEquals("M0,0L3,0", simplify("M0,0 A100,100 0 0 1 1,0 L3,0", 0.01f));
+    }
+
+    @Test
+    public void staysWithinTolerance() {
+        Random random = new Random(17);
+        float tolerance = 0.5f;
+        for (int round = 0; round < 200; round++) {
+            StringBuilder input = new StringBuilder("M0,0");
+            float[] points = new float[2 * 101];
+            for (int i = 1; i <= 100; i++) {
+                points[2 * i] = points[2 * i - 2] + random.nextFloat() * 2 - 0.5f;
+                points[2 * i + 1] = points[2 * i - 1] + random.nextFloat() - 0.5f;
+                input.append('L').append(points[2 * i]).append(',').append(points[2 * i + 1]);
+            }
+            PathData output = VdParser.parsePath(simplify(input.toString(), tolerance));
+            float[] kept = output.getCoords();
+            int keptPoints = output.getCoordCount() / 2;
+            assertTrue(keptPoints < 101);
+            for (int i = 0; i <= 100; i++) {
+                float nearest = Float.MAX_VALUE;
+                for (int j = 1; j < keptPoints; j++) {
+                    nearest = Math.min(nearest, PathSimplifier.distanceToSegment(points[2 * i],
+                            points[2 * i + 1], kept[2 * j - 2], kept[2 * j - 1], kept[2 * j], kept[2 * j + 1]));
+                }
+                assertTrue(input.toString(), nearest <= tolerance * 1.001f);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class PathTransformerTest {
+    private static String transform(String pathData, float a, float b, float c, float d, float e, float f) {
+        StringBuilder sb = new StringBuilder();
+        PathTokenizer.tokenize(pathData, new PathTransformer(a, b, c, d, e, f, new PathWriter(sb)));
+        return sb.toString();
+    }
+
+    @Test
+    public void linesAfterCloseStartFromTheSubpathStart() {
+        assertEquals("M-2,-3L8,7ZL3,-3L3,-1", transform("M0,0 L10,10 Z H5 V2", 1, 0, 0, 1, -2, -3));
+        assertEquals("M2,2l2,0zL2,4", transform("M1,1 h1 z V2", 2, 0, 0, 2, 0, 0));
+    }
+
+    @Test
+    public void appliesTheViewBoxOffsetAfterClose() {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"2 3 24 24\">"
+                + "<path d=\"M0,0 L10,10 Z H5\"/></svg>";
+        byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, new ConverterContext()));
+        String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(xml, xml.contains("ZL3,-3\""));
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathWriterTest {
+    private static String write(String pathData, int precision, boolean compact) {
+        OutputOptions options = new OutputOptions();
+        options.setPrecision(precision);
+        options.setCompactPathData(compact);
+        StringBuilder sb = new StringBuilder();
+        PathTokenizer.tokenize(pathData, new PathWriter(sb, options));
+        return sb.toString();
+    }
+
+    @Test
+    public void writesMinimalTokens() {
+        assertEquals("M.5-.5L.25.75,1,2l-3-4-.5.5z",
+                write("M0.5,-0.5 0.25,0.75 L1,2 l-3,-4 l-0.5,0.5 z", OutputOptions.FULL_PRECISION, true));
+        // The moveto keeps its letter, and so do the arc flags' separators.
+        assertEquals("M1,1M2,2a1,1,0,0,1,3,3", write("M1 1M2 2a1 1 0 0 1 3 3",
+                OutputOptions.FULL_PRECISION, true));
+    }
+
+    @Test
+    public void roundsToPrecision() {
+        assertEquals("M1.23,4.57L0,-0.1", write("M1.2345,4.5678L0.001,-0.0999", 2, false));
+        assertEquals("M1.23,4.57L0-.1", write("M1.2345,4.5678L0.001,-0.0999", 2, true));
+        assertEquals("M1,5", write("M1.2345,4.5678", 0, false));
+    }
+
+    @Test
+    public void compactOutputParsesBack() {
+        Random random = new Random(11);
+        String verbs = "MLHVCSQTAZmlhvcsqtaz";
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder input = new StringBuilder("M1,1");
+            for (int i = 0; i < 10; i++) {
+                char verb = verbs.charAt(random.nextInt(verbs.length()));
+                input.append(verb);
+                int arity = PathData.getArity(verb);
+                for (int j = 0; j < arity; j++) {
+                    if ((verb == 'a' || verb == 'A') && (j == 3 || j == 4)) {
+                        input.append(random.nextInt(2)).append(' ');
+                    } else {
+                        input.append((random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(5) - 2))
+                                .append(' ');
+                    }
+                }
+            }
+            PathData expected = VdParser.parsePath(write(input.toString(), 3, false));
+            PathData actual = VdParser.parsePath(write(input.toString(), 3, true));
+            assertEquals(input.toString(), expected.getSegmentCount(), actual.getSegmentCount());
+            for (int i = 0; i < expected.getSegmentCount(); i++) {
+                assertEquals(expected.getVerb(i), actual.getVerb(i));
+            }
+            assertArrayEquals(java.util.Arrays.copyOf(expected.getCoords(), expected.getCoordCount()),
+                    java.util.Arrays.copyOf(actual.getCoords(), actual.getCoordCount()), 0);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class StyleParserTest {
+    private static PresentationStyle apply(String style) {
+        PresentationStyle target = new PresentationStyle();
+        StyleParser.applyStyle(style, target);
+        return target;
+    }
+
+    @Test
+    public void ignoresWhitespaceAndEmptyDeclarations() {
+        PresentationStyle style = apply("fill : red !important ;;");
+        assertTrue(style.isSet(PresentationAttribute.FILL_COLOR));
+        assertEquals(0xFFFF0000, style.getFillColor());
+
+        style = apply(";stroke-width:2px;");
+        assertTrue(style.isSet(PresentationAttribute.STROKE_WIDTH));
+        assertEquals(2, style.mStrokeWidth, 0);
+    }
+
+    @Test
+    public void importantWinsOverLaterDeclarations() {
+        PresentationStyle style = apply("fill:red!important;fill:blue");
+        assertEquals(0xFFFF0000, style.getFillColor());
+
+        style = apply("fill:red;fill:blue");
+        assertEquals(0xFF0000FF, style.getFillColor());
+    }
+
+    @Test
+    public void quotedSemicolonStaysInTheValue() {
+        PresentationStyle style = apply("clip:\"a;b\";fill:#00ff00");
+        assertEquals("\"a;b\"", style.mClip);
+        assertEquals(0xFF00FF00, style.getFillColor());
+    }
+
+    @Test
+    public void reportsDisplayNone() {
+        assertTrue(StyleParser.applyStyle(" display : none ; fill:red", new PresentationStyle()));
+        assertFalse(StyleParser.applyStyle("display:inline", new PresentationStyle()));
+    }
+
+    @Test
+    public void inlineStyleWinsOverAttributes() {
+        String[] shapes = {
+                "path d=\"M0,0h10v10z\"",
+                "rect width=\"10\" height=\"10\"",
+                "circle r=\"5\"",
+                "line x2=\"10\" y2=\"10\"",
+                "polygon points=\"0,0 10,0 10,10\"",
+        };
+        for (String shape : shapes) {
+            for (String attributes : new String[] {
+                    "style=\"fill:#ff0000\" fill=\"#0000ff\"", "fill=\"#0000ff\" style=\"fill:#ff0000\""}) {
+                String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 10 10\">"
+                        + "<" + shape + " " + attributes + "/></svg>";
+                byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, new ConverterContext()));
+                String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+                assertTrue(svg + "\n" + xml, xml.contains("android:fillColor=\"#FF0000\""));
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.yzjdev.svg2vector;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class VectorDrawableWriterTest {
+    private static final class TrackingStream extends ByteArrayOutputStream {
+        boolean mClosed;
+        int mFlushes;
+
+        @Override
+        public void flush() {
+            mFlushes++;
+        }
+
+        @Override
+        public void close() {
+            mClosed = true;
+        }
+    }
+
+    @Test
+    public void writesElements() throws IOException {
+        TrackingStream out = new TrackingStream();
+        VectorDrawableWriter writer = new VectorDrawableWriter(out);
+        writer.startTag("    ", "path");
+        writer.attribute("android:pathData", "M0,0");
+        writer.attribute("android:fillColor", "#FF0000");
+        writer.endEmptyTag();
+        assertEquals("Buffered until flushed", 0, out.size());
+        writer.flush();
+        assertEquals("    <path\n        android:pathData=\"M0,0\"\n        android:fillColor=\"#FF0000\"/>\n",
+                out.toString("UTF-8"));
+        assertEquals(1, out.mFlushes);
+        assertFalse(out.mClosed);
+    }
+
+    @Test
+    public void writesMinifiedElements() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VectorDrawableWriter writer = new VectorDrawableWriter(out, true);
+        writer.startTag("", "vector");
+        writer.attribute("android:width", "24dp");
+        writer.endStartTag();
+        writer.startTag("    ", "path");
+        writer.attribute("android:pathData", "M0,0");
+        writer.endEmptyTag();
+        writer.endTag("", "vector");
+        writer.flush();
+        assertEquals("<vector android:width=\"24dp\"><path android:pathData=\"M0,0\"/></vector>",
+                out.toString("UTF-8"));
+    }
+
+    @Test
+    public void minifiedConversionElidesDefaults() throws IOException {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 10 10\" width=\"10\" height=\"10\">"
+                + "<path d=\"M1,1L5,5\" fill=\"none\" stroke=\"red\" stroke-opacity=\"1\""
+                + " stroke-linecap=\"butt\" stroke-linejoin=\"round\"/>"
+                + "<path d=\"M2,2L5,5\" stroke=\"none\" stroke-width=\"3\" fill-opacity=\"0.5\"/></svg>";
+        byte[] bytes = svg.getBytes(StandardCharsets.UTF_8);
+        ConverterContext context = new ConverterContext();
+        context.getOutputOptions().setMinifyXml(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(Svg2Vector.parseSvgToXml(bytes, 0, bytes.length, out, context));
+        assertEquals("<vector xmlns:android=\"http://schemas.android.com/apk/res/android\""
+                        + " android:width=\"10dp\" android:height=\"10dp\""
+                        + " android:viewportWidth=\"10.0\" android:viewportHeight=\"10.0\">"
+                        + "<path android:pathData=\"M1,1L5,5\" android:strokeColor=\"#FF0000\""
+                        + " android:strokeLinejoin=\"round\"/>"
+                        + "<path android:pathData=\"M2,2L5,5\" android:fillColor=\"#80000000\"/></vector>",
+                out.toString("UTF-8"));
+    }
+
+    @Test
+    public void escapesAttributeValues() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VectorDrawableWriter writer = new VectorDrawableWriter(out);
+        writer.attribute("a", "<\"x\" & 'y'>\n\t");
+        writer.flush();
+        assertEquals("\n        a=\"&lt;&quot;x&quot; &amp; 'y'&gt;&#10;&#9;\"", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void encodesUtf8AcrossTheBuffer() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("aé中😀");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VectorDrawableWriter writer = new VectorDrawableWriter(out);
+        writer.write(text);
+        // An unpaired surrogate can't be encoded.
+        writer.write("\ud83d.");
+        writer.flush();
+        assertArrayEquals((text + "?.").getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void conversionLeavesTheStreamOpen() {
+        TrackingStream out = new TrackingStream();
+        byte[] svg = ConversionBenchmarkTest.generateSvg(10);
+        assertNull(Svg2Vector.parseSvgToXml(svg, 0, svg.length, out));
+        assertFalse(out.mClosed);
+        assertTrue(out.mFlushes > 0);
+        assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).endsWith("</vector>\n"));
+    }
+}